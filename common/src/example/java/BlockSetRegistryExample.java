@@ -26,6 +26,7 @@ public class BlockSetRegistryExample {
         BlockSetAPI.addDynamicBlockRegistration(BlockSetRegistryExample::registerFlowerTypeBlocks, FlowerType.class);
 
         init2();
+        init3();
     }
 
 
@@ -110,6 +111,33 @@ public class BlockSetRegistryExample {
     }
 
 
+    // example of parallel registration. Properties are copied on worker threads, blocks are created in order after
+
+    public static void init3() {
+        BlockSetAPI.addParallelDynamicRegistration(new BlockSetAPI.BlockTypeEntryFactory<FlowerType, BlockBehaviour.Properties, Block>() {
+            @Override
+            public BlockBehaviour.Properties prepare(FlowerType type) {
+                return Utils.copyPropertySafe(type.shortFlower);
+            }
+
+            @Override
+            public Block create(FlowerType type, BlockBehaviour.Properties prepared) {
+                return new Block(prepared);
+            }
+
+            @Override
+            public ResourceLocation getId(FlowerType type) {
+                return Moonlight.res(type.getVariantId("block", "pressed"));
+            }
+
+            @Override
+            public void onRegistered(FlowerType type, Block entry) {
+                type.addChild("moonlight:pressed_flower", entry);
+            }
+        }, FlowerType.class, BuiltInRegistries.BLOCK);
+    }
+
+
     // example to register wood finders
 
     public static void init2(){
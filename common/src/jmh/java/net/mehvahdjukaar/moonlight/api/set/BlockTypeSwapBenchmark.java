@@ -0,0 +1,162 @@
+package net.mehvahdjukaar.moonlight.api.set;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ItemLike;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts 100k blocks between wood types with the registry tables and with the child key lookup they replace.
+ * Uses its own registry of vanilla wood types since the real ones are filled by the mod loader
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(BlockTypeSwapBenchmark.BLOCKS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockTypeSwapBenchmark {
+
+    static final int BLOCKS = 100_000;
+    private static final String[] VARIANTS = {"log", "stairs", "slab", "fence", "fence_gate", "door", "trapdoor",
+            "button", "pressure_plate", "sign", "hanging_sign"};
+
+    private WoodRegistry registry;
+    private Block[] blocks;
+    private BlockType[] originals;
+    private BlockType[] destinations;
+
+    @Setup
+    public void setup() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+        this.registry = new WoodRegistry();
+        registry.buildAll();
+        registry.fillChildren();
+
+        List<VanillaWood> types = new ArrayList<>(registry.getValues());
+        RandomSource random = RandomSource.create(42);
+        this.blocks = new Block[BLOCKS];
+        this.originals = new BlockType[BLOCKS];
+        this.destinations = new BlockType[BLOCKS];
+        for (int i = 0; i < BLOCKS; i++) {
+            VanillaWood type = types.get(random.nextInt(types.size()));
+            List<Block> children = new ArrayList<>();
+            for (var c : type.getChildren()) {
+                if (c.getValue() instanceof Block b) children.add(b);
+            }
+            blocks[i] = children.get(random.nextInt(children.size()));
+            originals[i] = type;
+            destinations[i] = types.get(random.nextInt(types.size()));
+        }
+        //both paths must agree
+        for (int i = 0; i < BLOCKS; i++) {
+            Object expected = BlockType.changeTypeByKey(blocks[i], originals[i], destinations[i]);
+            if (!Objects.equals(registry.swap(blocks[i], (VanillaWood) destinations[i]), expected) ||
+                    !Objects.equals(registry.changeType(blocks[i], originals[i], destinations[i]), expected)) {
+                throw new AssertionError("Swap tables disagree with child keys for " + blocks[i] + " to " + destinations[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public void swap(Blackhole bh) {
+        for (int i = 0; i < BLOCKS; i++) {
+            bh.consume(registry.swap(blocks[i], (VanillaWood) destinations[i]));
+        }
+    }
+
+    @Benchmark
+    public void changeType(Blackhole bh) {
+        for (int i = 0; i < BLOCKS; i++) {
+            bh.consume(registry.changeType(blocks[i], originals[i], destinations[i]));
+        }
+    }
+
+    @Benchmark
+    public void childKeyLookup(Blackhole bh) {
+        for (int i = 0; i < BLOCKS; i++) {
+            bh.consume(BlockType.changeTypeByKey(blocks[i], originals[i], destinations[i]));
+        }
+    }
+
+    private static class VanillaWood extends BlockType {
+
+        private final Block planks;
+
+        private VanillaWood(ResourceLocation id, Block planks) {
+            super(id);
+            this.planks = planks;
+        }
+
+        @Override
+        public String getTranslationKey() {
+            return "wood_type." + this.getTypeName();
+        }
+
+        @Override
+        protected void initializeChildrenBlocks() {
+            this.addChild("planks", planks);
+            for (String v : VARIANTS) {
+                this.addChild(v, this.findRelatedEntry(v, BuiltInRegistries.BLOCK));
+            }
+        }
+
+        @Override
+        protected void initializeChildrenItems() {
+        }
+
+        @Override
+        public ItemLike mainChild() {
+            return planks;
+        }
+    }
+
+    private static class WoodRegistry extends BlockTypeRegistry<VanillaWood> {
+
+        private final VanillaWood oak = new VanillaWood(new ResourceLocation("oak"), Blocks.OAK_PLANKS);
+
+        private WoodRegistry() {
+            super(VanillaWood.class, "benchmark_wood");
+        }
+
+        @Override
+        public VanillaWood getDefaultType() {
+            return oak;
+        }
+
+        @Override
+        public Optional<VanillaWood> detectTypeFromBlock(Block block, ResourceLocation blockId) {
+            String path = blockId.getPath();
+            if (blockId.getNamespace().equals("minecraft") && path.endsWith("_planks")) {
+                String name = path.substring(0, path.length() - "_planks".length());
+                return Optional.of(new VanillaWood(new ResourceLocation(name), block));
+            }
+            return Optional.empty();
+        }
+
+        //children normally get mapped through the block set registration, which needs a mod loader
+        private void fillChildren() {
+            for (VanillaWood type : this.getValues()) {
+                type.initializeChildrenBlocks();
+                for (var c : type.getChildren()) {
+                    this.mapObjectToType(c.getValue(), type);
+                }
+            }
+            this.rebuildIdIndex();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package net.mehvahdjukaar.moonlight.core.map;
+
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.mehvahdjukaar.moonlight.api.map.CustomMapData;
+import net.mehvahdjukaar.moonlight.api.map.CustomMapDecoration;
+import net.mehvahdjukaar.moonlight.api.map.markers.SimpleMapBlockMarker;
+import net.mehvahdjukaar.moonlight.api.map.type.CustomDecorationType;
+import net.mehvahdjukaar.moonlight.api.map.type.MapDecorationType;
+import net.minecraft.SharedConstants;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.util.RandomSource;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates players holding the same map while its decorations and custom data change, going through the same
+ * encoding map packets use. Mixins aren't applied on a plain jvm so the server and client map state is kept here.
+ * Runs as a benchmark with the jmh task. Its main method checks every client ends up with what the server has and
+ * prints the bytes sent per tick
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapSyncBenchmark {
+
+    private static final int SIZE = 128;
+    private static final int TYPES = 4;
+    //same framing as MapItemDataPacketMixin
+    private static final byte DECORATIONS_NONE = 0;
+    private static final byte DECORATIONS_DELTA = 1;
+    private static final byte DECORATIONS_FULL = 2;
+    //same interval as HoldingPlayerMixin
+    private static final int CHECKSUM_INTERVAL = 20 * 4;
+
+    @Param({"1", "8", "32"})
+    public int players;
+    @Param({"16", "128"})
+    public int decorations;
+    //decorations moved and map pixels changed each tick
+    @Param({"2"})
+    public int changesPerTick;
+
+    private final List<MapDecorationType<?, ?>> types = new ArrayList<>();
+    private final Reference2IntOpenHashMap<MapDecorationType<?, ?>> typeIds = new Reference2IntOpenHashMap<>();
+    private final Map<String, CustomMapDecoration> serverDecorations = new LinkedHashMap<>();
+    private final byte[] serverData = new byte[SIZE * SIZE];
+    private final List<Holder> holders = new ArrayList<>();
+    private final FriendlyByteBuf packet = new FriendlyByteBuf(Unpooled.buffer());
+    private RandomSource random;
+    private int tick;
+    private int nextKey;
+
+    private class Holder {
+        //server side
+        private final MapDecorationSyncTracker tracker = new MapDecorationSyncTracker(typeIds::getInt);
+        private final CustomMapData.DirtyRegionCounter dataCounter = new CustomMapData.DirtyRegionCounter();
+        //client side
+        private final Map<String, CustomMapDecoration> clientDecorations = new LinkedHashMap<>();
+        private final MapDecorationSyncTracker.Received received = new MapDecorationSyncTracker.Received();
+        private final byte[] clientData = new byte[SIZE * SIZE];
+        private boolean needsResend = false;
+    }
+
+    @Setup
+    public void setup() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+        this.random = RandomSource.create(42);
+        for (int i = 0; i < TYPES; i++) {
+            MapDecorationType<?, ?> type = CustomDecorationType.<CustomMapDecoration, SimpleMapBlockMarker>simple(
+                    SimpleMapBlockMarker::new, CustomMapDecoration::new);
+            typeIds.put(type, i);
+            types.add(type);
+        }
+        for (int i = 0; i < decorations; i++) {
+            serverDecorations.put(String.valueOf(nextKey++), createDecoration());
+        }
+        random.nextBytes(serverData);
+        for (int i = 0; i < players; i++) {
+            holders.add(new Holder());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        packet.release();
+    }
+
+    @Benchmark
+    public int tick() {
+        return this.tick(false);
+    }
+
+    /**
+     * Changes the map and sends the changes to every holder
+     *
+     * @param verify if clients should be checked against the server after applying what they received
+     * @return bytes sent to all holders
+     */
+    private int tick(boolean verify) {
+        this.mutate();
+        boolean checksum = tick++ % CHECKSUM_INTERVAL == 0;
+        int bytes = 0;
+        for (Holder h : holders) {
+            packet.clear();
+            this.writePacket(h, checksum);
+            bytes += packet.readableBytes();
+            this.readPacket(h);
+            if (verify) verify(h);
+        }
+        return bytes;
+    }
+
+    private void mutate() {
+        List<String> keys = new ArrayList<>(serverDecorations.keySet());
+        for (int i = 0; i < changesPerTick; i++) {
+            //decorations are replaced, never modified in place
+            String key = keys.get(random.nextInt(keys.size()));
+            serverDecorations.put(key, createDecoration());
+
+            int x = random.nextInt(SIZE);
+            int z = random.nextInt(SIZE);
+            serverData[x + z * SIZE] = (byte) random.nextInt(64);
+            for (Holder h : holders) {
+                h.dataCounter.markDirty(x, z);
+            }
+        }
+        //occasionally one goes away and another appears
+        if (random.nextInt(10) == 0) {
+            serverDecorations.remove(keys.get(random.nextInt(keys.size())));
+            serverDecorations.put(String.valueOf(nextKey++), createDecoration());
+        }
+    }
+
+    private CustomMapDecoration createDecoration() {
+        MapDecorationType<?, ?> type = types.get(random.nextInt(types.size()));
+        Component name = random.nextInt(4) == 0 ? Component.literal("Marker " + random.nextInt(100)) : null;
+        return new CustomMapDecoration(type, (byte) random.nextInt(256), (byte) random.nextInt(256),
+                (byte) random.nextInt(16), name);
+    }
+
+    private void writePacket(Holder h, boolean checksum) {
+        if (h.needsResend) {
+            h.tracker.requestReset();
+            h.needsResend = false;
+        }
+        MapDecorationSyncTracker.Delta delta = h.tracker.computeDelta(serverDecorations, checksum);
+        if (delta == null) {
+            packet.writeByte(DECORATIONS_NONE);
+        } else if (delta.isSnapshot()) {
+            packet.writeByte(DECORATIONS_FULL);
+            delta.writeSnapshot(packet);
+        } else {
+            packet.writeByte(DECORATIONS_DELTA);
+            delta.write(packet);
+        }
+        packet.writeBoolean(h.dataCounter.isDirty());
+        if (h.dataCounter.isDirty()) {
+            h.dataCounter.writeRegion(packet, serverData);
+            h.dataCounter.clearDirty();
+        }
+    }
+
+    private void readPacket(Holder h) {
+        byte mode = packet.readByte();
+        MapDecorationSyncTracker.Delta delta = null;
+        if (mode == DECORATIONS_DELTA) delta = MapDecorationSyncTracker.Delta.read(packet, this::getType);
+        else if (mode == DECORATIONS_FULL) delta = MapDecorationSyncTracker.Delta.readSnapshot(packet, this::getType);
+        if (delta != null && !delta.applyTo(h.clientDecorations, h.received)) {
+            h.needsResend = true;
+        }
+        if (packet.readBoolean()) {
+            CustomMapData.DirtyRegionCounter.readRegion(packet, h.clientData);
+        }
+        if (packet.isReadable()) throw new AssertionError("Packet has " + packet.readableBytes() + " unread bytes");
+    }
+
+    @Nullable
+    private MapDecorationType<?, ?> getType(int id) {
+        return id >= 0 && id < types.size() ? types.get(id) : null;
+    }
+
+    private void verify(Holder h) {
+        if (!Arrays.equals(h.clientData, serverData)) throw new AssertionError("Client map data differs from server");
+        //decoration hash codes need a registry so this compares them one by one
+        List<CustomMapDecoration> missing = new ArrayList<>(serverDecorations.values());
+        for (CustomMapDecoration d : h.clientDecorations.values()) {
+            if (!missing.remove(d)) throw new AssertionError("Client has a decoration the server doesn't: " + d);
+        }
+        if (!missing.isEmpty()) throw new AssertionError("Client is missing " + missing.size() + " decorations");
+    }
+
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 20 * 60;
+        for (int players : new int[]{1, 8, 32}) {
+            for (int decorations : new int[]{16, 128}) {
+                MapSyncBenchmark harness = new MapSyncBenchmark();
+                harness.players = players;
+                harness.decorations = decorations;
+                harness.changesPerTick = 2;
+                harness.setup();
+                long total = 0;
+                int first = 0;
+                int max = 0;
+                for (int i = 0; i < ticks; i++) {
+                    int bytes = harness.tick(true);
+                    if (i == 0) first = bytes;
+                    else max = Math.max(max, bytes);
+                    total += bytes;
+                }
+                harness.tearDown();
+                System.out.printf("players=%d decorations=%d: first tick %d bytes, then avg %.1f max %d bytes per tick%n",
+                        players, decorations, first, (total - first) / (double) (ticks - 1), max);
+            }
+        }
+    }
+}
@@ -26,6 +26,8 @@ public class FluidContainerList {
     */
 
     private final Map<Item, Category> emptyToFilledMap = new IdentityHashMap<>();
+    //reverse lookup. Kept in sync with the categories above
+    private final Map<Item, Category> filledToCategoryMap = new IdentityHashMap<>();
 
     public FluidContainerList(List<Category> categoryList) {
         categoryList.forEach(this::addCategory);
@@ -40,17 +42,18 @@ public class FluidContainerList {
                 Category c = emptyToFilledMap.get(newCategory.emptyContainer);
                 if (c.containerCapacity == newCategory.containerCapacity) {
                     c.filled.addAll(newCategory.filled);
+                    newCategory.filled.forEach(i -> filledToCategoryMap.putIfAbsent(i, c));
                 }
             } else {
                 emptyToFilledMap.put(newCategory.emptyContainer, newCategory);
+                newCategory.filled.forEach(i -> filledToCategoryMap.putIfAbsent(i, newCategory));
             }
         }
     }
 
     public Optional<Item> getEmpty(Item filledContainer) {
-        for (var e : this.emptyToFilledMap.entrySet()) {
-            if (e.getValue().getFilledItems().contains(filledContainer)) return Optional.of(e.getKey());
-        }
+        Category c = this.filledToCategoryMap.get(filledContainer);
+        if (c != null) return Optional.of(c.emptyContainer);
         return Optional.empty();
     }
 
@@ -65,7 +68,12 @@ public class FluidContainerList {
     }
 
     public Optional<Category> getCategoryFromFilled(Item filledContainer) {
-        return this.getEmpty(filledContainer).map(this.emptyToFilledMap::get);
+        return Optional.ofNullable(this.filledToCategoryMap.get(filledContainer));
+    }
+
+    @Nullable
+    Category getCategoryOrNull(Item filledContainer) {
+        return this.filledToCategoryMap.get(filledContainer);
     }
 
 
@@ -93,16 +101,22 @@ public class FluidContainerList {
 
     protected void add(Item empty, Item filled, int amount) {
         var c = this.emptyToFilledMap.computeIfAbsent(empty, i -> new Category(i, amount));
-        c.addItem(filled);
+        this.addFilled(c, filled);
     }
 
     protected void add(Item empty, Item filled, int amount, SoundEvent fillSound, SoundEvent emptySound) {
         var c = this.emptyToFilledMap.computeIfAbsent(empty, i -> new Category(i, amount));
-        c.addItem(filled);
+        this.addFilled(c, filled);
         c.fillSound = fillSound;
         c.emptySound = emptySound;
     }
 
+    private void addFilled(Category c, Item filled) {
+        if (c.addItem(filled)) {
+            this.filledToCategoryMap.putIfAbsent(filled, c);
+        }
+    }
+
     public static class Category {
 
         private static final Supplier<Category> EMPTY = Suppliers.memoize(() ->
@@ -160,8 +174,12 @@ public class FluidContainerList {
             return containerCapacity;
         }
 
-        private void addItem(Item i) {
-            if (!i.getDefaultInstance().isEmpty() && !filled.contains(i)) filled.add(i);
+        private boolean addItem(Item i) {
+            if (!i.getDefaultInstance().isEmpty() && !filled.contains(i)) {
+                filled.add(i);
+                return true;
+            }
+            return false;
         }
 
         /**
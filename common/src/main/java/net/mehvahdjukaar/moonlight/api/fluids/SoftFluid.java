@@ -7,11 +7,14 @@ import net.mehvahdjukaar.moonlight.api.misc.Triplet;
 import net.mehvahdjukaar.moonlight.api.util.Utils;
 import net.mehvahdjukaar.moonlight.api.util.math.ColorUtils;
 import net.mehvahdjukaar.moonlight.api.misc.StrOpt;
+import net.minecraft.core.BlockPos;
 import net.minecraft.core.Holder;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.RegistryFileCodec;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.sounds.SoundEvent;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.util.StringRepresentable;
@@ -23,6 +26,7 @@ import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 
@@ -227,6 +231,39 @@ public class SoftFluid {
         return !this.food.isEmpty();
     }
 
+    //code hooks can't go in the data driven object itself so they are keyed by id
+    private static final Map<ResourceKey<SoftFluid>, TankTicker> TANK_TICKERS = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a passive effect for tanks containing the given fluid. Only tanks added to
+     * {@link SoftFluidTankScheduler} are ticked
+     */
+    public static void registerTankTicker(ResourceKey<SoftFluid> fluid, TankTicker ticker) {
+        TANK_TICKERS.put(fluid, ticker);
+    }
+
+    @Nullable
+    public static TankTicker getTankTicker(Holder<SoftFluid> fluid) {
+        if (TANK_TICKERS.isEmpty()) return null;
+        return fluid.unwrapKey().map(TANK_TICKERS::get).orElse(null);
+    }
+
+    /**
+     * Periodic behavior for tanks holding a fluid, like evaporation or fermentation
+     */
+    @FunctionalInterface
+    public interface TankTicker {
+
+        /**
+         * @param tank         tank to update
+         * @param level        level the tank owner is in
+         * @param pos          tank owner position
+         * @param elapsedTicks game ticks since this tank was last updated
+         * @return if the tank was changed and needs to be saved and synced
+         */
+        boolean tick(SoftFluidTank tank, ServerLevel level, BlockPos pos, int elapsedTicks);
+    }
+
 
     //TODO: builder isn't needed anymore. maybe remove
     @SuppressWarnings("UnusedReturnValue")
@@ -4,11 +4,13 @@ import dev.architectury.injectables.annotations.ExpectPlatform;
 import net.mehvahdjukaar.moonlight.api.platform.PlatHelper;
 import net.mehvahdjukaar.moonlight.api.util.Utils;
 import net.mehvahdjukaar.moonlight.core.Moonlight;
+import net.mehvahdjukaar.moonlight.core.misc.StartupProfiler;
 import net.mehvahdjukaar.moonlight.core.network.ClientBoundFinalizeFluidsMessage;
 import net.mehvahdjukaar.moonlight.core.network.ModMessages;
 import net.minecraft.core.Holder;
 import net.minecraft.core.Registry;
 import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
@@ -17,6 +19,7 @@ import net.minecraft.world.item.Items;
 import net.minecraft.world.level.material.Fluid;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 
@@ -25,8 +28,8 @@ public class SoftFluidRegistry {
 
     public static final ResourceKey<Registry<SoftFluid>> KEY = ResourceKey.createRegistryKey(Moonlight.res("soft_fluids"));
 
-    protected static final Map<Fluid, Holder<SoftFluid>> FLUID_MAP = new IdentityHashMap<>();
-    protected static final Map<Item, Holder<SoftFluid>> ITEM_MAP = new IdentityHashMap<>();
+    //frozen, swapped as a whole when soft fluids are reloaded or synced
+    private static volatile SlaveIndex slaveIndex = SlaveIndex.EMPTY;
 
 
     public static Holder<SoftFluid> getEmpty() {
@@ -77,26 +80,73 @@ public class SoftFluidRegistry {
     }
 
 
+    /**
+     * @return the soft fluid equivalent to the given fluid, or null if there's none
+     */
+    @Nullable
+    public static Holder<SoftFluid> getFromFluid(Fluid fluid) {
+        return slaveIndex.getFluid(fluid);
+    }
+
+    /**
+     * @return the soft fluid contained in the given filled container item, or null if there's none
+     */
+    @Nullable
+    public static Holder<SoftFluid> getFromItem(Item filledContainer) {
+        return slaveIndex.getItemFluid(filledContainer);
+    }
+
+    /**
+     * @return container category of the given filled item for the soft fluid it contains, or null if there's none
+     */
+    @Nullable
+    public static FluidContainerList.Category getCategoryFromItem(Item filledContainer) {
+        return slaveIndex.getItemCategory(filledContainer);
+    }
+
+    /**
+     * @return amount of bottles contained in the given filled container item, 0 if it's not a soft fluid container
+     */
+    public static int getItemContainerAmount(Item filledContainer) {
+        var c = getCategoryFromItem(filledContainer);
+        return c == null ? 0 : c.getAmount();
+    }
+
     //needs to be called on both sides
     private static void populateSlaveMaps() {
-        var itemMap = ITEM_MAP;
-        itemMap.clear();
-        var fluidsMap = FLUID_MAP;
-        fluidsMap.clear();
+        try (var s = StartupProfiler.start("soft_fluids", "populate")) {
+            Map<Fluid, Holder<SoftFluid>> fluidsMap = new IdentityHashMap<>();
+            Map<Item, Holder<SoftFluid>> itemMap = new IdentityHashMap<>();
+            populateSlaveMapsInternal(fluidsMap, itemMap);
+            slaveIndex = SlaveIndex.build(fluidsMap, itemMap);
+        }
+    }
+
+    private static void populateSlaveMapsInternal(Map<Fluid, Holder<SoftFluid>> fluidsMap, Map<Item, Holder<SoftFluid>> itemMap) {
         for (var h : getHolders()) {
             var s = h.value();
             if (PlatHelper.isModLoaded(s.getFromMod())) {
-                s.getEquivalentFluids().forEach(f -> fluidsMap.put(f, h));
-                s.getContainerList().getPossibleFilled().forEach(i -> {
-                    //don't associate water to potion bottle
-                    if (i != Items.POTION || s != BuiltInSoftFluids.WATER.get()) {
-                        itemMap.put(i, h);
+                for (Fluid f : s.getEquivalentFluids()) {
+                    fluidsMap.put(f, h);
+                }
+                for (var c : s.getContainerList().getCategories()) {
+                    for (Item i : c.getFilledItems()) {
+                        //don't associate water to potion bottle
+                        if (i != Items.POTION || s != BuiltInSoftFluids.WATER.get()) {
+                            itemMap.put(i, h);
+                        }
                     }
-                });
+                }
             }
         }
     }
 
+    //raw ids changed. Rebuilds the arrays from the same maps
+    @ApiStatus.Internal
+    public static void onRegistryIdsRemapped() {
+        var old = slaveIndex;
+        slaveIndex = SlaveIndex.build(old.fluidMap, old.itemMap);
+    }
 
     //wtf is going on here
 
@@ -121,7 +171,13 @@ public class SoftFluidRegistry {
         populateSlaveMaps();
         //registers existing fluids. also update the salve maps
         //we need to call this on bont server and client as this happens too late and these wont be sent
-        registerExistingVanillaFluids(FLUID_MAP, ITEM_MAP);
+        try (var s = StartupProfiler.start("soft_fluids", "vanilla_fluids")) {
+            var old = slaveIndex;
+            Map<Fluid, Holder<SoftFluid>> fluidsMap = new IdentityHashMap<>(old.fluidMap);
+            Map<Item, Holder<SoftFluid>> itemMap = new IdentityHashMap<>(old.itemMap);
+            registerExistingVanillaFluids(fluidsMap, itemMap);
+            slaveIndex = SlaveIndex.build(fluidsMap, itemMap);
+        }
     }
 
     @ExpectPlatform
@@ -129,6 +185,74 @@ public class SoftFluidRegistry {
         throw new AssertionError();
     }
 
+    /**
+     * Fluid and item lookups indexed by their raw registry id
+     */
+    private static final class SlaveIndex {
 
-}
+        private static final SlaveIndex EMPTY = new SlaveIndex(Map.of(), Map.of());
 
+        private final Map<Fluid, Holder<SoftFluid>> fluidMap;
+        private final Map<Item, Holder<SoftFluid>> itemMap;
+        private final Fluid[] fluidKeys;
+        private final Holder<SoftFluid>[] fluids;
+        private final Item[] itemKeys;
+        private final Holder<SoftFluid>[] items;
+        private final FluidContainerList.Category[] itemCategories;
+
+        @SuppressWarnings("unchecked")
+        private SlaveIndex(Map<Fluid, Holder<SoftFluid>> fluidMap, Map<Item, Holder<SoftFluid>> itemMap) {
+            this.fluidMap = fluidMap;
+            this.itemMap = itemMap;
+            this.fluids = new Holder[fluidMap.isEmpty() ? 0 : BuiltInRegistries.FLUID.size()];
+            this.fluidKeys = new Fluid[this.fluids.length];
+            this.items = new Holder[itemMap.isEmpty() ? 0 : BuiltInRegistries.ITEM.size()];
+            this.itemKeys = new Item[this.items.length];
+            this.itemCategories = new FluidContainerList.Category[this.items.length];
+        }
+
+        private static SlaveIndex build(Map<Fluid, Holder<SoftFluid>> fluidMap, Map<Item, Holder<SoftFluid>> itemMap) {
+            SlaveIndex index = new SlaveIndex(fluidMap, itemMap);
+            for (var e : fluidMap.entrySet()) {
+                int id = BuiltInRegistries.FLUID.getId(e.getKey());
+                if (id >= 0 && id < index.fluids.length) {
+                    index.fluidKeys[id] = e.getKey();
+                    index.fluids[id] = e.getValue();
+                }
+            }
+            for (var e : itemMap.entrySet()) {
+                int id = BuiltInRegistries.ITEM.getId(e.getKey());
+                if (id >= 0 && id < index.items.length) {
+                    Holder<SoftFluid> h = e.getValue();
+                    index.itemKeys[id] = e.getKey();
+                    index.items[id] = h;
+                    index.itemCategories[id] = h.value().getContainerList().getCategoryOrNull(e.getKey());
+                }
+            }
+            return index;
+        }
+
+        //slots are keyed so stale ids can't return another entry. Misses go through the maps
+        @Nullable
+        private Holder<SoftFluid> getFluid(Fluid fluid) {
+            int id = BuiltInRegistries.FLUID.getId(fluid);
+            if (id >= 0 && id < fluids.length && fluidKeys[id] == fluid) return fluids[id];
+            return fluidMap.get(fluid);
+        }
+
+        @Nullable
+        private Holder<SoftFluid> getItemFluid(Item item) {
+            int id = BuiltInRegistries.ITEM.getId(item);
+            if (id >= 0 && id < items.length && itemKeys[id] == item) return items[id];
+            return itemMap.get(item);
+        }
+
+        @Nullable
+        private FluidContainerList.Category getItemCategory(Item item) {
+            int id = BuiltInRegistries.ITEM.getId(item);
+            if (id >= 0 && id < items.length && itemKeys[id] == item) return itemCategories[id];
+            Holder<SoftFluid> h = itemMap.get(item);
+            return h == null ? null : h.value().getContainerList().getCategoryOrNull(item);
+        }
+    }
+}
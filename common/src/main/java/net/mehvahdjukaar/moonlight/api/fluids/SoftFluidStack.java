@@ -3,13 +3,15 @@ package net.mehvahdjukaar.moonlight.api.fluids;
 import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import net.mehvahdjukaar.moonlight.api.misc.ResLocInterner;
 import net.mehvahdjukaar.moonlight.api.platform.PlatHelper;
 import net.mehvahdjukaar.moonlight.api.util.PotionNBTHelper;
 import net.mehvahdjukaar.moonlight.api.util.Utils;
 import net.minecraft.core.Holder;
+import net.minecraft.nbt.ByteTag;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.Tag;
-import net.minecraft.resources.ResourceLocation;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.tags.TagKey;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
@@ -22,7 +24,6 @@ import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
-import java.util.Objects;
 
 // do NOT have these in a static field as they contain registry holders
 public class SoftFluidStack {
@@ -30,7 +31,7 @@ public class SoftFluidStack {
     public static final Codec<SoftFluidStack> CODEC = RecordCodecBuilder.create(i -> i.group(
             SoftFluid.HOLDER_CODEC.fieldOf("id").forGetter(SoftFluidStack::getFluid),
             Codec.INT.optionalFieldOf("count", 1).forGetter(SoftFluidStack::getCount),
-            CompoundTag.CODEC.optionalFieldOf("tag", null).forGetter(SoftFluidStack::getTag)
+            CompoundTag.CODEC.optionalFieldOf("tag", null).forGetter(SoftFluidStack::getTagView)
     ).apply(i, SoftFluidStack::new));
 
     // this is not a singleton. Many empty instances might exist. We keep this just as a minor optimization
@@ -41,11 +42,18 @@ public class SoftFluidStack {
     private int count;
     private CompoundTag tag;
     private boolean isEmptyCache;
+    //copy on write. Copies share the same tag until one of them needs to modify it
+    private boolean tagShared = false;
+    private boolean tagHashValid = false;
+    private int tagHash;
+    private boolean immutable = false;
 
 
     public SoftFluidStack(Holder<SoftFluid> fluid, int count, CompoundTag tag) {
         this.fluid = fluid;
         this.tag = tag;
+        //we don't own a tag that was given to us. Copied on first write
+        this.tagShared = tag != null;
         this.setCount(count);
 
         //even more hardcoded shit
@@ -64,6 +72,21 @@ public class SoftFluidStack {
         this(fluid, 1, null);
     }
 
+    //shares the tag of the other stack
+    private SoftFluidStack(SoftFluidStack other, int count, boolean immutable) {
+        this.fluid = other.getFluid();
+        this.tag = other.tag;
+        this.tagHash = other.tagHash;
+        this.tagHashValid = other.tagHashValid;
+        this.count = count;
+        this.updateEmpty();
+        if (this.tag != null) {
+            this.tagShared = true;
+            other.tagShared = true;
+        }
+        this.immutable = immutable;
+    }
+
     public SoftFluidStack bucket(Holder<SoftFluid> fluid){
         return new SoftFluidStack(fluid, SoftFluid.BUCKET_COUNT);
     }
@@ -79,6 +102,7 @@ public class SoftFluidStack {
     public static SoftFluidStack empty() {
         if (cachedEmptyInstance == null) {
             cachedEmptyInstance = new SoftFluidStack(SoftFluidRegistry.getEmpty(), 0, null);
+            cachedEmptyInstance.immutable = true;
         }
         return cachedEmptyInstance;
     }
@@ -90,7 +114,7 @@ public class SoftFluidStack {
 
     public CompoundTag save(CompoundTag compoundTag) {
         compoundTag.putString("id", getFluid().unwrapKey().get().location().toString());
-        compoundTag.putByte("count", (byte) this.count);
+        compoundTag.putInt("count", this.count);
         if (this.tag != null) {
             compoundTag.put("tag", this.tag.copy());
         }
@@ -108,12 +132,15 @@ public class SoftFluidStack {
             tag.remove("NBT");
         }
         if (tag.contains("Count")) {
-            tag.putByte("count", (byte) tag.getInt("Count"));
-            tag.remove("count");
+            tag.putInt("count", tag.getInt("Count"));
+            tag.remove("Count");
         }
 
-        var fluid = SoftFluidRegistry.getHolder(new ResourceLocation(tag.getString("id")));
-        var amount = tag.getByte("count");
+        var fluid = SoftFluidRegistry.getHolder(ResLocInterner.parse(tag.getString("id")));
+        int amount;
+        //old versions saved the count as a byte. Read it as unsigned since counts are never negative
+        if (tag.get("count") instanceof ByteTag b) amount = Byte.toUnsignedInt(b.getAsByte());
+        else amount = tag.getInt("count");
         CompoundTag nbt = null;
         if (tag.contains("tag", 10)) {
             nbt = tag.getCompound("tag");
@@ -121,6 +148,35 @@ public class SoftFluidStack {
         return new SoftFluidStack(fluid, amount, nbt);
     }
 
+    /**
+     * Compact network encoding. Writes the fluid registry id and count as var ints followed by the tag.
+     * Use save for disk as ids are only valid while the soft fluid registry is the same
+     */
+    public void writeToBuffer(FriendlyByteBuf buf) {
+        buf.writeVarInt(getFluidNetworkId(getFluid()));
+        buf.writeVarInt(getCount());
+        buf.writeNbt(this.tag);
+    }
+
+    public static SoftFluidStack readFromBuffer(FriendlyByteBuf buf) {
+        Holder<SoftFluid> fluid = getFluidFromNetworkId(buf.readVarInt());
+        int count = buf.readVarInt();
+        CompoundTag tag = buf.readNbt();
+        return new SoftFluidStack(fluid, count, tag);
+    }
+
+    @ApiStatus.Internal
+    public static int getFluidNetworkId(Holder<SoftFluid> fluid) {
+        return SoftFluidRegistry.hackyGetRegistry().getId(fluid.value());
+    }
+
+    @ApiStatus.Internal
+    public static Holder<SoftFluid> getFluidFromNetworkId(int id) {
+        var h = SoftFluidRegistry.hackyGetRegistry().getHolder(id);
+        if (h.isPresent()) return h.get();
+        return SoftFluidRegistry.getEmpty();
+    }
+
     public boolean is(TagKey<SoftFluid> tag) {
         return getFluid().is(tag);
     }
@@ -150,7 +206,7 @@ public class SoftFluidStack {
     }
 
     public void setCount(int count) {
-        if (this == cachedEmptyInstance) {
+        if (this.immutable) {
             if (PlatHelper.isDev()) throw new AssertionError();
             return;
         }
@@ -170,26 +226,56 @@ public class SoftFluidStack {
         return tag != null;
     }
 
+    /**
+     * @return this stack tag, safe to modify. Copies it first if it was shared with other stacks.
+     * Use {@link #getTagView()} if you only need to read it
+     */
+    @Nullable
     public CompoundTag getTag() {
+        if (tag == null) return null;
+        if (this.immutable) return tag.copy();
+        if (tagShared) setTag(tag.copy());
+        //caller might modify it
+        this.tagHashValid = false;
+        return tag;
+    }
+
+    /**
+     * @return this stack tag without copying it. Might be shared with copies of this stack so don't modify it
+     */
+    @Nullable
+    public CompoundTag getTagView() {
         return tag;
     }
 
     public void setTag(CompoundTag tag) {
-        if (this == cachedEmptyInstance) {
+        if (this.immutable) {
             if (PlatHelper.isDev()) throw new AssertionError();
             return;
         }
         this.tag = tag;
+        this.tagShared = false;
+        this.tagHashValid = false;
     }
 
+    /**
+     * @return a tag that can be modified. Copies the tag if it was shared with other stacks
+     */
     public CompoundTag getOrCreateTag() {
+        if (this.immutable) {
+            if (PlatHelper.isDev()) throw new AssertionError();
+            return tag == null ? new CompoundTag() : tag.copy();
+        }
         if (tag == null) setTag(new CompoundTag());
+        else if (tagShared) setTag(tag.copy());
+        //caller might modify it
+        this.tagHashValid = false;
         return tag;
     }
 
     public CompoundTag getOrCreateTagElement(String key) {
         if (this.tag != null && this.tag.contains(key, 10)) {
-            return this.tag.getCompound(key);
+            return this.getOrCreateTag().getCompound(key);
         } else {
             CompoundTag compoundTag = new CompoundTag();
             this.addTagElement(key, compoundTag);
@@ -201,8 +287,11 @@ public class SoftFluidStack {
         this.getOrCreateTag().put(key, tag);
     }
 
+    /**
+     * Cheap copy. The tag is only copied once either stack modifies it
+     */
     public SoftFluidStack copy() {
-        return new SoftFluidStack(getFluid(), count, tag == null ? null : tag.copy());
+        return new SoftFluidStack(this, count, false);
     }
 
     public SoftFluidStack copyWithCount(int count) {
@@ -213,6 +302,18 @@ public class SoftFluidStack {
         return stack;
     }
 
+    /**
+     * @return a read only snapshot of this stack that doesn't copy its tag. Use for queries that don't need to modify it
+     */
+    public SoftFluidStack immutableCopy() {
+        if (this.immutable) return this;
+        return new SoftFluidStack(this, count, true);
+    }
+
+    public boolean isImmutable() {
+        return immutable;
+    }
+
     public SoftFluidStack split(int amount) {
         int i = Math.min(amount, this.getCount());
         SoftFluidStack stack = this.copyWithCount(i);
@@ -231,7 +332,18 @@ public class SoftFluidStack {
      * Just checks if nbt is the same
      */
     public boolean isFluidStackTagEqual(SoftFluidStack other) {
-        return Objects.equals(this.tag, other.tag);
+        if (this.tag == other.tag) return true;
+        if (this.tag == null || other.tag == null) return false;
+        if (this.getTagHash() != other.getTagHash()) return false;
+        return this.tag.equals(other.tag);
+    }
+
+    private int getTagHash() {
+        if (!tagHashValid) {
+            tagHash = tag == null ? 0 : tag.hashCode();
+            tagHashValid = true;
+        }
+        return tagHash;
     }
 
     // these do not take count into account for some reason
@@ -240,7 +352,7 @@ public class SoftFluidStack {
         int code = 1;
         code = 31 * code + getFluid().hashCode();
         if (tag != null)
-            code = 31 * code + tag.hashCode();
+            code = 31 * code + getTagHash();
         return code;
     }
 
@@ -263,7 +375,7 @@ public class SoftFluidStack {
     }
 
     public static SoftFluidStack fromFluid(Fluid fluid, int amount, @Nullable CompoundTag tag) {
-        Holder<SoftFluid> f = SoftFluidRegistry.FLUID_MAP.get(fluid);
+        Holder<SoftFluid> f = SoftFluidRegistry.getFromFluid(fluid);
         if (f == null) return null;
         return new SoftFluidStack(f, amount, tag);
     }
@@ -273,15 +385,15 @@ public class SoftFluidStack {
     @Nullable
     public static Pair<SoftFluidStack, FluidContainerList.Category> fromItem(ItemStack itemStack) {
         Item filledContainer = itemStack.getItem();
-        Holder<SoftFluid> fluid = SoftFluidRegistry.ITEM_MAP.get(filledContainer);
+        Holder<SoftFluid> fluid = SoftFluidRegistry.getFromItem(filledContainer);
 
         if (fluid != null && !fluid.value().isEmpty()) {
-            var category = fluid.value().getContainerList()
-                    .getCategoryFromFilled(filledContainer);
+            //precomputed with the item index
+            var category = SoftFluidRegistry.getCategoryFromItem(filledContainer);
 
-            if (category.isPresent()) {
+            if (category != null) {
 
-                int count = category.get().getAmount();
+                int count = category.getAmount();
 
                 CompoundTag fluidTag = new CompoundTag();
 
@@ -312,7 +424,7 @@ public class SoftFluidStack {
 
                 if (fluidTag.isEmpty()) fluidTag = null;
 
-                return Pair.of(new SoftFluidStack(fluid, count, fluidTag), category.get());
+                return Pair.of(new SoftFluidStack(fluid, count, fluidTag), category);
             }
         }
         return null;
@@ -1,9 +1,13 @@
 package net.mehvahdjukaar.moonlight.api.fluids;
 
 import dev.architectury.injectables.annotations.ExpectPlatform;
+import io.netty.buffer.Unpooled;
 import net.mehvahdjukaar.moonlight.api.util.Utils;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.sounds.SoundEvent;
 import net.minecraft.sounds.SoundSource;
 import net.minecraft.stats.Stats;
@@ -18,6 +22,9 @@ import net.minecraft.world.level.BlockAndTintGetter;
 import net.minecraft.world.level.Level;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+import java.util.Objects;
+
 /**
  * instance this fluid tank in your tile entity
  */
@@ -28,6 +35,10 @@ public abstract class SoftFluidTank {
     public static final int BOWL_COUNT = 2;
     public static final int BUCKET_COUNT = 4;
 
+    private static final byte SYNC_FULL = 0;
+    private static final byte SYNC_COUNT = 1;
+    private static final byte SYNC_FLUID = 2;
+
     protected final int capacity;
     protected SoftFluidStack fluid = SoftFluidStack.empty();
 
@@ -35,6 +46,13 @@ public abstract class SoftFluidTank {
     protected int specialColor = 0;
     protected boolean needsColorRefresh = true;
 
+    //last content written with writeToBuffer. Used to only send what changed.
+    //kept per tank, not per recipient, so delta writes only suit packets that always go to the same players
+    @Nullable
+    private Holder<SoftFluid> lastSyncedFluid = null;
+    @Nullable
+    private CompoundTag lastSyncedTag = null;
+
     protected SoftFluidTank(int capacity) {
         this.capacity = capacity;
     }
@@ -229,6 +247,92 @@ public abstract class SoftFluidTank {
         return false;
     }
 
+    /**
+     * Moves up to the given amount of this tank content into the provided tanks, filling them in order.
+     * All destinations are checked with {@link #canAddSoftFluid} before anything is moved, so a simulated call returns the same amount a real one would.
+     * Moved stacks share this tank tag until one of them changes it
+     *
+     * @param destinations distinct tanks to fill
+     * @param amount       maximum amount to move in total
+     * @param simulate     if true nothing is changed
+     * @return amount that was moved, or would be if simulated
+     */
+    public int transferFluid(List<? extends SoftFluidTank> destinations, int amount, boolean simulate) {
+        if (this.isEmpty() || amount <= 0) return 0;
+        int available = Math.min(amount, this.getFluidCount());
+        int size = destinations.size();
+        SoftFluidStack[] planned = new SoftFluidStack[size];
+        int total = 0;
+        for (int i = 0; i < size && total < available; i++) {
+            SoftFluidTank dest = destinations.get(i);
+            if (dest == this) continue;
+            int moved = Math.min(dest.getSpace(), available - total);
+            if (moved <= 0) continue;
+            SoftFluidStack stack = this.fluid.copyWithCount(moved);
+            if (!dest.canAddSoftFluid(stack)) continue;
+            planned[i] = stack;
+            total += moved;
+        }
+        if (simulate || total == 0) return total;
+
+        for (int i = 0; i < size; i++) {
+            SoftFluidStack stack = planned[i];
+            if (stack == null) continue;
+            SoftFluidTank dest = destinations.get(i);
+            if (dest.isEmpty()) {
+                dest.setFluid(stack);
+            } else {
+                dest.addFluidOntoExisting(stack);
+            }
+        }
+        this.fluid.shrink(total);
+        return total;
+    }
+
+    /**
+     * Pulls up to the given amount of fluid from the provided tanks into this one, in order.
+     * Only sources containing the same fluid as this tank (or as the first non-empty source if this is empty) are drained,
+     * and only as long as {@link #canAddSoftFluid} accepts the total
+     *
+     * @param sources  distinct tanks to drain
+     * @param amount   maximum amount to move in total
+     * @param simulate if true nothing is changed
+     * @return amount that was moved, or would be if simulated
+     */
+    public int drainFluid(List<? extends SoftFluidTank> sources, int amount, boolean simulate) {
+        int available = Math.min(amount, this.getSpace());
+        if (available <= 0) return 0;
+        int size = sources.size();
+        int[] planned = new int[size];
+        SoftFluidStack target = this.isEmpty() ? null : this.fluid;
+        SoftFluidStack drained = null;
+        int total = 0;
+        for (int i = 0; i < size && total < available; i++) {
+            SoftFluidTank source = sources.get(i);
+            if (source == this || source.isEmpty()) continue;
+            if (target != null && !source.fluid.isFluidEqual(target)) continue;
+            int moved = Math.min(source.getFluidCount(), available - total);
+            //checks the whole amount added so far
+            SoftFluidStack stack = source.fluid.copyWithCount(total + moved);
+            if (!this.canAddSoftFluid(stack)) continue;
+            if (target == null) target = source.fluid;
+            drained = stack;
+            planned[i] = moved;
+            total += moved;
+        }
+        if (simulate || total == 0) return total;
+
+        if (this.isEmpty()) {
+            this.setFluid(drained);
+        } else {
+            this.addFluidOntoExisting(drained);
+        }
+        for (int i = 0; i < size; i++) {
+            if (planned[i] != 0) sources.get(i).fluid.shrink(planned[i]);
+        }
+        return total;
+    }
+
     public int getSpace() {
         return Math.max(0, capacity - fluid.getCount());
     }
@@ -260,14 +364,21 @@ public abstract class SoftFluidTank {
      * @return comparator block redstone power
      */
     public int getComparatorOutput() {
-        float f = fluid.getCount() / (float) this.capacity;
-        return Mth.floor(f * 14.0F) + 1;
+        //long math so big tanks don't overflow or lose precision
+        return (int) (fluid.getCount() * 14L / this.capacity) + 1;
     }
 
     public SoftFluidStack getFluid() {
         return fluid;
     }
 
+    /**
+     * @return read only snapshot of the current fluid. Doesn't copy its tag so prefer it to copying for queries
+     */
+    public SoftFluidStack getFluidView() {
+        return fluid.immutableCopy();
+    }
+
     public SoftFluid getFluidValue() {
         return fluid.getFluid().value();
     }
@@ -342,7 +453,11 @@ public abstract class SoftFluidTank {
      * @param compound nbt
      */
     public void load(CompoundTag compound) {
-        if (compound.contains("FluidHolder")) {
+        if (compound.contains("FluidHolder", Tag.TAG_BYTE_ARRAY)) {
+            //compact update tag
+            FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.wrappedBuffer(compound.getByteArray("FluidHolder")));
+            this.readFromBuffer(buf);
+        } else if (compound.contains("FluidHolder")) {
             CompoundTag cmp = compound.getCompound("FluidHolder");
             this.fluid = SoftFluidStack.load(cmp);
             if (this.isEmpty()) this.fluid = SoftFluidStack.empty();
@@ -366,6 +481,88 @@ public abstract class SoftFluidTank {
         return compound;
     }
 
+    /**
+     * Saves a compact binary form of this tank meant for block entity update tags. Load still reads it.
+     * Do not use to save to disk as it uses registry network ids
+     *
+     * @param compound update tag
+     * @return update tag
+     */
+    public CompoundTag saveToUpdateTag(CompoundTag compound) {
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        try {
+            this.writeToBuffer(buf, false);
+            byte[] bytes = new byte[buf.readableBytes()];
+            buf.readBytes(bytes);
+            compound.putByteArray("FluidHolder", bytes);
+        } finally {
+            buf.release();
+        }
+        return compound;
+    }
+
+    /**
+     * Writes this tank content in a compact network form.
+     * In delta mode only the count is written if fluid and tag didn't change since the last call, and the tag is only
+     * written when it changed. The baseline is shared by all recipients so only use delta for packets that always reach
+     * the same players, like a block entity update sent to everyone tracking its chunk. Players that start tracking
+     * later must get a full write first
+     *
+     * @param buf   buffer
+     * @param delta if only changes since the last write should be sent
+     */
+    public void writeToBuffer(FriendlyByteBuf buf, boolean delta) {
+        Holder<SoftFluid> f = this.fluid.getFluid();
+        CompoundTag tag = this.fluid.getTagView();
+        boolean sameTag = lastSyncedFluid != null && Objects.equals(tag, lastSyncedTag);
+        if (delta && sameTag && f == lastSyncedFluid) {
+            buf.writeByte(SYNC_COUNT);
+            buf.writeVarInt(this.fluid.getCount());
+        } else if (delta && sameTag) {
+            buf.writeByte(SYNC_FLUID);
+            buf.writeVarInt(SoftFluidStack.getFluidNetworkId(f));
+            buf.writeVarInt(this.fluid.getCount());
+        } else {
+            buf.writeByte(SYNC_FULL);
+            this.fluid.writeToBuffer(buf);
+            this.lastSyncedTag = tag == null ? null : tag.copy();
+        }
+        this.lastSyncedFluid = f;
+        //client resets empty tanks and loses the tag so next write must be a full one
+        if (this.isEmpty()) {
+            this.lastSyncedFluid = null;
+            this.lastSyncedTag = null;
+        }
+    }
+
+    /**
+     * Reads content written by {@link #writeToBuffer(FriendlyByteBuf, boolean)}
+     *
+     * @param buf buffer
+     * @return false if this was a delta this tank couldn't fully apply because it missed the previous full write.
+     * In that case the caller should request a full update
+     */
+    public boolean readFromBuffer(FriendlyByteBuf buf) {
+        byte mode = buf.readByte();
+        boolean complete = true;
+        if (mode == SYNC_COUNT) {
+            int count = buf.readVarInt();
+            //we don't know which fluid this is. keep it empty until a full update arrives
+            if (this.isEmpty()) complete = false;
+            else this.fluid.setCount(count);
+        } else if (mode == SYNC_FLUID) {
+            Holder<SoftFluid> f = SoftFluidStack.getFluidFromNetworkId(buf.readVarInt());
+            int count = buf.readVarInt();
+            //accept the fluid. only its tag might be missing
+            if (this.isEmpty()) complete = false;
+            this.setFluid(new SoftFluidStack(f, count, this.isEmpty() ? null : this.fluid.getTagView()));
+        } else {
+            this.setFluid(SoftFluidStack.readFromBuffer(buf));
+        }
+        if (this.isEmpty()) this.fluid = SoftFluidStack.empty();
+        return complete;
+    }
+
     /**
      * makes player drink 1 bottle and removes it from the tank
      *
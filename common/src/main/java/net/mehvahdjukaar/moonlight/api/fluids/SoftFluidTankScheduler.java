@@ -0,0 +1,148 @@
+package net.mehvahdjukaar.moonlight.api.fluids;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectAVLTreeMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.ApiStatus;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Opt-in shared ticker for tanks that need periodic behavior. Tanks are added by their block entity, updated every
+ * given interval (with some jitter so they don't all run on the same tick) and only when their chunk is ticking.
+ * What happens on each update is decided by the {@link SoftFluid.TankTicker} registered for the contained fluid.
+ * Empty tanks and tanks with fluids that have no ticker are skipped.
+ * Server side only. Add tanks when the block entity gets a level, they are dropped automatically once it's removed
+ */
+public class SoftFluidTankScheduler {
+
+    private static final Map<Level, LevelTanks> LEVELS = new WeakHashMap<>();
+
+    /**
+     * @param owner    block entity holding the tank. Must already have a level
+     * @param tank     tank to update
+     * @param interval ticks between updates
+     */
+    public static void add(BlockEntity owner, SoftFluidTank tank, int interval) {
+        if (!(owner.getLevel() instanceof ServerLevel level)) return;
+        if (interval <= 0) throw new IllegalArgumentException("Tank tick interval must be positive");
+        LEVELS.computeIfAbsent(level, l -> new LevelTanks()).add(level, owner, tank, interval);
+    }
+
+    public static void remove(BlockEntity owner) {
+        if (owner.getLevel() instanceof ServerLevel level) {
+            LevelTanks tanks = LEVELS.get(level);
+            if (tanks != null) tanks.remove(owner);
+        }
+    }
+
+    @ApiStatus.Internal
+    public static void tick(ServerLevel level) {
+        LevelTanks tanks = LEVELS.get(level);
+        if (tanks != null) tanks.tick(level);
+    }
+
+    @ApiStatus.Internal
+    public static void onLevelUnload(Level level) {
+        LEVELS.remove(level);
+    }
+
+    private static class Entry {
+        private final BlockEntity owner;
+        private final SoftFluidTank tank;
+        private final int interval;
+        private final long chunk;
+        private long lastTick;
+        private boolean cancelled = false;
+
+        private Entry(BlockEntity owner, SoftFluidTank tank, int interval, long lastTick) {
+            this.owner = owner;
+            this.tank = tank;
+            this.interval = interval;
+            this.chunk = ChunkPos.asLong(owner.getBlockPos());
+            this.lastTick = lastTick;
+        }
+    }
+
+    private static class LevelTanks {
+        //entries bucketed by the game time they are due at. Sorted so all due buckets are at its head
+        private final Long2ObjectAVLTreeMap<List<Entry>> schedule = new Long2ObjectAVLTreeMap<>();
+        private final Reference2ObjectOpenHashMap<BlockEntity, Entry> byOwner = new Reference2ObjectOpenHashMap<>();
+
+        private void add(ServerLevel level, BlockEntity owner, SoftFluidTank tank, int interval) {
+            long time = level.getGameTime();
+            Entry entry = new Entry(owner, tank, interval, time);
+            Entry old = byOwner.put(owner, entry);
+            if (old != null) old.cancelled = true;
+            //jitter so tanks loaded together don't all tick together. From position so vanilla rng isn't consumed
+            schedule(entry, time + 1 + Math.floorMod(Mth.getSeed(owner.getBlockPos()), interval));
+        }
+
+        private void remove(BlockEntity owner) {
+            Entry old = byOwner.remove(owner);
+            if (old != null) old.cancelled = true;
+        }
+
+        private void schedule(Entry entry, long time) {
+            schedule.computeIfAbsent(time, t -> new ArrayList<>()).add(entry);
+        }
+
+        private void tick(ServerLevel level) {
+            long time = level.getGameTime();
+            List<Entry> due = null;
+            //usually just the current bucket. More if game time jumped
+            while (!schedule.isEmpty() && schedule.firstLongKey() <= time) {
+                List<Entry> bucket = schedule.remove(schedule.firstLongKey());
+                if (due == null) due = bucket;
+                else due.addAll(bucket);
+            }
+            if (due == null) return;
+            //batch by chunk so loaded checks are done once per chunk
+            due.sort(Comparator.comparingLong(e -> e.chunk));
+            long currentChunk = ChunkPos.INVALID_CHUNK_POS;
+            boolean chunkTicking = false;
+            for (Entry e : due) {
+                if (e.cancelled) continue;
+                if (e.owner.isRemoved() || e.owner.getLevel() != level) {
+                    byOwner.remove(e.owner, e);
+                    continue;
+                }
+                if (e.chunk != currentChunk) {
+                    currentChunk = e.chunk;
+                    chunkTicking = level.shouldTickBlocksAt(currentChunk);
+                }
+                if (chunkTicking) {
+                    updateTank(level, e, time);
+                }
+                schedule(e, time + e.interval);
+            }
+        }
+
+        private static void updateTank(ServerLevel level, Entry e, long time) {
+            int elapsed = (int) Math.min(Integer.MAX_VALUE, time - e.lastTick);
+            e.lastTick = time;
+            SoftFluidTank tank = e.tank;
+            //idle
+            if (tank.isEmpty()) return;
+            SoftFluid.TankTicker ticker = SoftFluid.getTankTicker(tank.getFluid().getFluid());
+            if (ticker == null) return;
+            BlockPos pos = e.owner.getBlockPos();
+            if (ticker.tick(tank, level, pos, elapsed)) {
+                e.owner.setChanged();
+                BlockState state = e.owner.getBlockState();
+                level.sendBlockUpdated(pos, state, state, Block.UPDATE_CLIENTS);
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.mojang.datafixers.util.Pair;
 import net.mehvahdjukaar.moonlight.api.platform.PlatHelper;
 import net.mehvahdjukaar.moonlight.core.Moonlight;
 import net.mehvahdjukaar.moonlight.core.misc.IExtendedItem;
+import net.mehvahdjukaar.moonlight.core.misc.StartupProfiler;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.Items;
@@ -79,7 +80,9 @@ public class AdditionalItemPlacementsAPI {
             }
         }
         //after all registry objects are created we register our stuff
-        attemptRegistering();
+        try (var s = StartupProfiler.start("additional_placements")) {
+            attemptRegistering();
+        }
     }
 
 
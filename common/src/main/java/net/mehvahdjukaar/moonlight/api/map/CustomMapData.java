@@ -2,6 +2,7 @@ package net.mehvahdjukaar.moonlight.api.map;
 
 import net.mehvahdjukaar.moonlight.api.client.TextureCache;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.entity.Entity;
@@ -52,6 +53,33 @@ public interface CustomMapData<H extends CustomMapData.DirtyCounter> {
 
     void saveToUpdateTag(CompoundTag tag, H dirtyCounter);
 
+    /**
+     * Copies this data into another instance of the same type. Called when maps are copied, locked or scaled.
+     * Override to avoid going through nbt
+     */
+    default void copyTo(CustomMapData<H> other) {
+        CompoundTag tag = new CompoundTag();
+        this.save(tag);
+        other.load(tag);
+    }
+
+    /**
+     * Return true to sync this data with the buffer methods below instead of the update tag ones.
+     * Use for big data like per pixel overlays
+     */
+    default boolean usesBufferUpdates() {
+        return false;
+    }
+
+    /**
+     * Writes changes since the dirty counter was last cleared. See {@link DirtyRegionCounter} for per pixel data
+     */
+    default void saveToUpdateBuffer(FriendlyByteBuf buf, H dirtyCounter) {
+    }
+
+    default void loadUpdateBuffer(FriendlyByteBuf buf) {
+    }
+
     default void setDirty(MapItemSavedData data, Consumer<H> dirtySetter) {
         Type<?> type = this.getType();
         ((ExpandedMapData) data).setCustomDataDirty(type, dirtySetter);
@@ -74,6 +102,142 @@ public interface CustomMapData<H extends CustomMapData.DirtyCounter> {
         }
     }
 
+    /**
+     * Keeps track of the dirty area of 128x128 per pixel data, like vanilla does for map colors.
+     * Data arrays are indexed by x + z * 128
+     */
+    class DirtyRegionCounter implements DirtyCounter {
+        private static final int SIZE = 128;
+        private static final byte REGION_RAW = 0;
+        private static final byte REGION_RLE = 1;
+
+        private boolean dirty = true;
+        private int minX = 0;
+        private int minZ = 0;
+        private int maxX = SIZE - 1;
+        private int maxZ = SIZE - 1;
+
+        public void markDirty(int x, int z) {
+            if (this.dirty) {
+                this.minX = Math.min(this.minX, x);
+                this.minZ = Math.min(this.minZ, z);
+                this.maxX = Math.max(this.maxX, x);
+                this.maxZ = Math.max(this.maxZ, z);
+            } else {
+                this.dirty = true;
+                this.minX = x;
+                this.minZ = z;
+                this.maxX = x;
+                this.maxZ = z;
+            }
+        }
+
+        public void markAllDirty() {
+            this.dirty = true;
+            this.minX = 0;
+            this.minZ = 0;
+            this.maxX = SIZE - 1;
+            this.maxZ = SIZE - 1;
+        }
+
+        @Override
+        public boolean isDirty() {
+            return dirty;
+        }
+
+        @Override
+        public void clearDirty() {
+            this.dirty = false;
+        }
+
+        /**
+         * Writes the dirty area of the given data, run length encoded when that ends up smaller
+         */
+        public void writeRegion(FriendlyByteBuf buf, byte[] data) {
+            int width = maxX - minX + 1;
+            int height = maxZ - minZ + 1;
+            buf.writeByte(minX);
+            buf.writeByte(minZ);
+            buf.writeByte(width - 1);
+            buf.writeByte(height - 1);
+            if (this.getRunLengthSize(data) < width * height) {
+                buf.writeByte(REGION_RLE);
+                this.writeRuns(buf, data);
+            } else {
+                buf.writeByte(REGION_RAW);
+                for (int z = minZ; z <= maxZ; z++) {
+                    buf.writeBytes(data, minX + z * SIZE, width);
+                }
+            }
+        }
+
+        private int getRunLengthSize(byte[] data) {
+            int size = 0;
+            byte current = data[minX + minZ * SIZE];
+            int run = 0;
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    byte b = data[x + z * SIZE];
+                    if (b != current) {
+                        size += FriendlyByteBuf.getVarIntSize(run) + 1;
+                        current = b;
+                        run = 0;
+                    }
+                    run++;
+                }
+            }
+            return size + FriendlyByteBuf.getVarIntSize(run) + 1;
+        }
+
+        private void writeRuns(FriendlyByteBuf buf, byte[] data) {
+            byte current = data[minX + minZ * SIZE];
+            int run = 0;
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    byte b = data[x + z * SIZE];
+                    if (b != current) {
+                        buf.writeVarInt(run);
+                        buf.writeByte(current);
+                        current = b;
+                        run = 0;
+                    }
+                    run++;
+                }
+            }
+            buf.writeVarInt(run);
+            buf.writeByte(current);
+        }
+
+        /**
+         * Reads a region written by {@link #writeRegion} into the given data
+         */
+        public static void readRegion(FriendlyByteBuf buf, byte[] data) {
+            int minX = buf.readUnsignedByte();
+            int minZ = buf.readUnsignedByte();
+            int width = buf.readUnsignedByte() + 1;
+            int height = buf.readUnsignedByte() + 1;
+            if (minX + width > SIZE || minZ + height > SIZE) throw new IllegalStateException("Invalid map data region");
+            byte mode = buf.readByte();
+            if (mode == REGION_RAW) {
+                for (int z = minZ; z < minZ + height; z++) {
+                    buf.readBytes(data, minX + z * SIZE, width);
+                }
+                return;
+            }
+            if (mode != REGION_RLE) throw new IllegalStateException("Unknown map data region mode " + mode);
+            int total = width * height;
+            int i = 0;
+            while (i < total) {
+                int run = buf.readVarInt();
+                byte b = buf.readByte();
+                if (run <= 0 || i + run > total) throw new IllegalStateException("Invalid map data region");
+                for (int end = i + run; i < end; i++) {
+                    data[minX + (i % width) + (minZ + i / width) * SIZE] = b;
+                }
+            }
+        }
+    }
+
     interface DirtyCounter {
 
         boolean isDirty();
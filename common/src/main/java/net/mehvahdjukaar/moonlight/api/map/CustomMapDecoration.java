@@ -1,5 +1,6 @@
 package net.mehvahdjukaar.moonlight.api.map;
 
+import io.netty.buffer.Unpooled;
 import net.mehvahdjukaar.moonlight.api.map.type.MapDecorationType;
 import net.mehvahdjukaar.moonlight.api.util.Utils;
 import net.minecraft.core.BlockPos;
@@ -97,6 +98,21 @@ public class CustomMapDecoration {
         return 31 * i + Objects.hashCode(this.displayName);
     }
 
+    /**
+     * Copies this decoration through its buffer serialization.
+     * Override if you have data that isn't sent there or if you can do it cheaper
+     *
+     * @return new decoration instance, or this one if it could not be read back
+     */
+    public CustomMapDecoration copy() {
+        FriendlyByteBuf buffer = new FriendlyByteBuf(Unpooled.buffer());
+        this.saveToBuffer(buffer);
+        CustomMapDecoration decoration = this.type.loadDecorationFromBuffer(buffer);
+        if (decoration == null) return this;
+        decoration.isClientOnly = this.isClientOnly;
+        return decoration;
+    }
+
     /**
      * used to send decoration data to client
      * implement this if you are adding new data to this base decoration class
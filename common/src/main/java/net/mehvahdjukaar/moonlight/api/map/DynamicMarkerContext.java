@@ -0,0 +1,24 @@
+package net.mehvahdjukaar.moonlight.api.map;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.Vec3;
+import net.minecraft.world.level.saveddata.maps.MapItemSavedData;
+
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of a map and of the player holding it. Given to async dynamic marker providers
+ * instead of the live objects so they can safely run off the server thread
+ */
+public record DynamicMarkerContext(int mapId, ResourceKey<Level> mapDimension, int centerX, int centerZ,
+                                   byte scale, boolean locked, UUID playerId, ResourceKey<Level> playerDimension,
+                                   Vec3 playerPos, float playerYRot, long gameTime) {
+
+    public static DynamicMarkerContext of(Player player, int mapId, MapItemSavedData data) {
+        Level level = player.level();
+        return new DynamicMarkerContext(mapId, data.dimension, data.centerX, data.centerZ, data.scale, data.locked,
+                player.getUUID(), level.dimension(), player.position(), player.getYRot(), level.getGameTime());
+    }
+}
@@ -73,7 +73,30 @@ public class MapDataRegistry {
      * @param event callback
      */
     public static void addDynamicServerMarkersEvent(TriFunction<Player, Integer, MapItemSavedData, Set<MapBlockMarker<?>>> event) {
-        MapDataInternal.addDynamicServerMarkersEvent(event);
+        MapDataInternal.addDynamicServerMarkersEvent(event, 1);
+    }
+
+    /**
+     * Same as above but only called every refreshInterval ticks for each holding player
+     *
+     * @param event           callback
+     * @param refreshInterval ticks between calls
+     */
+    public static void addDynamicServerMarkersEvent(TriFunction<Player, Integer, MapItemSavedData, Set<MapBlockMarker<?>>> event,
+                                                    int refreshInterval) {
+        MapDataInternal.addDynamicServerMarkersEvent(event, refreshInterval);
+    }
+
+    /**
+     * Same as above but called off the server thread with a snapshot of the map and player.
+     * Must not access the world. Results are sent once available, only if they changed
+     *
+     * @param event           callback
+     * @param refreshInterval ticks between calls
+     */
+    public static void addAsyncDynamicServerMarkersEvent(Function<DynamicMarkerContext, Set<MapBlockMarker<?>>> event,
+                                                         int refreshInterval) {
+        MapDataInternal.addAsyncDynamicServerMarkersEvent(event, refreshInterval);
     }
 
     public static CustomDecorationType<?, ?> getCustomType(ResourceLocation resourceLocation) {
@@ -0,0 +1,98 @@
+package net.mehvahdjukaar.moonlight.api.map.client;
+
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import net.mehvahdjukaar.moonlight.api.client.util.RenderUtil;
+import net.mehvahdjukaar.moonlight.api.map.CustomMapDecoration;
+import net.minecraft.client.renderer.LightTexture;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.util.Mth;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Matrix4f;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects outlines and names while rendering the decorations of a map so they can be drawn after all sprites.
+ * Avoids switching buffers back and forth for each decoration. Render thread only
+ */
+class DecorationBatch {
+
+    @Nullable
+    static DecorationBatch active = null;
+
+    private record Outline(Matrix4f pose, int index, int alpha, TextureAtlasSprite sprite) {
+    }
+
+    private record Name<T extends CustomMapDecoration>(DecorationRenderer<T> renderer, T decoration,
+                                                       Matrix4f pose, int light) {
+        private void render(MultiBufferSource buffer) {
+            PoseStack poseStack = new PoseStack();
+            poseStack.last().pose().set(pose);
+            renderer.renderName(decoration, poseStack, buffer, light);
+        }
+    }
+
+    private final List<Outline> outlines = new ArrayList<>();
+    private final List<Name<?>> names = new ArrayList<>();
+
+    void addOutline(Matrix4f pose, int index, int alpha, TextureAtlasSprite sprite) {
+        outlines.add(new Outline(new Matrix4f(pose), index, alpha, sprite));
+    }
+
+    <T extends CustomMapDecoration> void addName(DecorationRenderer<T> renderer, T decoration, PoseStack poseStack, int light) {
+        names.add(new Name<>(renderer, decoration, new Matrix4f(poseStack.last().pose()), light));
+    }
+
+    void clear() {
+        outlines.clear();
+        names.clear();
+    }
+
+    void flush(MultiBufferSource buffer) {
+        if (!outlines.isEmpty()) {
+            VertexConsumer vb = buffer.getBuffer(RenderUtil.getTextColorRenderType(MapDecorationClientManager.LOCATION_MAP_MARKERS));
+            for (Outline o : outlines) {
+                renderOutline(o.pose, vb, o.index, o.alpha, o.sprite);
+            }
+            outlines.clear();
+        }
+        for (Name<?> n : names) {
+            n.render(buffer);
+        }
+        names.clear();
+    }
+
+    /**
+     * Renders the sprite 8 times around its position in white, same as offsetting the pose by one pixel each time
+     */
+    static void renderOutline(Matrix4f pose, VertexConsumer vb, int index, int alpha, TextureAtlasSprite sprite) {
+        float u0 = sprite.getU(0);
+        float u1 = sprite.getU(16);
+        float h = (u0 + u1) / 2.0f;
+        float v0 = sprite.getV(0);
+        float v1 = sprite.getV(16);
+        float k = (v0 + v1) / 2.0f;
+        float shrink = sprite.uvShrinkRatio();
+        float u0s = Mth.lerp(shrink, u0, h);
+        float u1s = Mth.lerp(shrink, u1, h);
+        float v0s = Mth.lerp(shrink, v0, k);
+        float v1s = Mth.lerp(shrink, v1, k);
+        float z = index * -0.001F + 0.001F;
+        int light = LightTexture.FULL_BRIGHT;
+        for (int j = -1; j <= 1; ++j) {
+            for (int l = -1; l <= 1; ++l) {
+                if (j != 0 || l != 0) {
+                    float dx = j * 0.125F;
+                    float dy = l * 0.125F;
+                    vb.vertex(pose, -1.0F + dx, 1.0F + dy, z).color(255, 255, 255, alpha).uv(u0s, v1s).uv2(light).endVertex();
+                    vb.vertex(pose, 1.0F + dx, 1.0F + dy, z).color(255, 255, 255, alpha).uv(u1s, v1s).uv2(light).endVertex();
+                    vb.vertex(pose, 1.0F + dx, -1.0F + dy, z).color(255, 255, 255, alpha).uv(u1s, v0s).uv2(light).endVertex();
+                    vb.vertex(pose, -1.0F + dx, -1.0F + dy, z).color(255, 255, 255, alpha).uv(u0s, v0s).uv2(light).endVertex();
+                }
+            }
+        }
+    }
+}
@@ -10,7 +10,6 @@ import net.mehvahdjukaar.moonlight.api.map.CustomMapDecoration;
 import net.mehvahdjukaar.moonlight.core.CompatHandler;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.Font;
-import net.minecraft.client.renderer.LightTexture;
 import net.minecraft.client.renderer.MultiBufferSource;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
 import net.minecraft.network.chat.Component;
@@ -22,6 +21,9 @@ import org.jetbrains.annotations.Nullable;
 
 public class DecorationRenderer<T extends CustomMapDecoration> {
     protected final ResourceLocation textureId;
+    @Nullable
+    private TextureAtlasSprite sprite = null;
+    private int spriteGeneration = -1;
 
     @Deprecated(forRemoval = true)
     public DecorationRenderer(ResourceLocation texture, int mapColor, boolean renderOnFrame) {
@@ -76,7 +78,9 @@ public class DecorationRenderer<T extends CustomMapDecoration> {
             matrixStack.popPose();
 
             if (decoration.getDisplayName() != null && rendersText) {
-                renderName(decoration, matrixStack, buffer, light);
+                DecorationBatch batch = DecorationBatch.active;
+                if (batch != null) batch.addName(this, decoration, matrixStack, light);
+                else renderName(decoration, matrixStack, buffer, light);
             }
             return true;
         }
@@ -92,8 +96,9 @@ public class DecorationRenderer<T extends CustomMapDecoration> {
         int g = FastColor.ARGB32.green(color);
         int r = FastColor.ARGB32.red(color);
 
-        RenderSystem.enableDepthTest();
-        TextureAtlasSprite sprite = MapDecorationClientManager.getAtlasSprite(textureId);
+        //batched rendering gets its state from the render types
+        if (DecorationBatch.active == null) RenderSystem.enableDepthTest();
+        TextureAtlasSprite sprite = getSprite();
         //so we can use local coordinates
         //idk wy wrap doesnt work, it does the same as here
         //vertexBuilder = sprite.wrap(vertexBuilder);
@@ -102,22 +107,25 @@ public class DecorationRenderer<T extends CustomMapDecoration> {
             RenderUtil.renderSprite(matrixStack, vertexBuilder, light, index, b, g, r, alpha, sprite);
 
             if (outline) {
-                RenderSystem.setShaderColor(1, 1, 1, 1);
-                VertexConsumer vb2 = buffer.getBuffer(RenderUtil.getTextColorRenderType(MapDecorationClientManager.LOCATION_MAP_MARKERS));
-                for (int j = -1; j <= 1; ++j) {
-                    for (int k = -1; k <= 1; ++k) {
-                        if (j != 0 || k != 0) {
-                            matrixStack.pushPose();
-                            matrixStack.translate(j * 0.125, k * 0.125, 0.001);
-                            RenderUtil.renderSprite(matrixStack, vb2, LightTexture.FULL_BRIGHT, index, 255, 255, 255, alpha, sprite);
-                            matrixStack.popPose();
-                        }
-                    }
+                DecorationBatch batch = DecorationBatch.active;
+                if (batch != null) batch.addOutline(matrixStack.last().pose(), index, alpha, sprite);
+                else {
+                    VertexConsumer vb2 = buffer.getBuffer(RenderUtil.getTextColorRenderType(MapDecorationClientManager.LOCATION_MAP_MARKERS));
+                    DecorationBatch.renderOutline(matrixStack.last().pose(), vb2, index, alpha, sprite);
                 }
             }
         }
     }
 
+    protected TextureAtlasSprite getSprite() {
+        int generation = MapDecorationClientManager.getAtlasGeneration();
+        if (sprite == null || spriteGeneration != generation) {
+            sprite = MapDecorationClientManager.getAtlasSprite(textureId);
+            spriteGeneration = generation;
+        }
+        return sprite;
+    }
+
 
     protected void renderName(T decoration, PoseStack matrixStack, MultiBufferSource buffer, int light) {
         Font font = Minecraft.getInstance().font;
@@ -4,6 +4,7 @@ import com.google.common.collect.Maps;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.VertexConsumer;
 import net.mehvahdjukaar.moonlight.api.map.CustomMapDecoration;
+import net.mehvahdjukaar.moonlight.api.map.ExpandedMapData;
 import net.mehvahdjukaar.moonlight.api.map.type.MapDecorationType;
 import net.mehvahdjukaar.moonlight.api.util.Utils;
 import net.mehvahdjukaar.moonlight.core.Moonlight;
@@ -14,6 +15,7 @@ import net.minecraft.client.renderer.texture.TextureAtlasSprite;
 import net.minecraft.client.resources.TextureAtlasHolder;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.level.saveddata.maps.MapItemSavedData;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Map;
@@ -24,6 +26,8 @@ public class MapDecorationClientManager extends TextureAtlasHolder {
     public static final ResourceLocation LOCATION_MAP_MARKERS = Moonlight.res("textures/atlas/map_markers.png");
     public static final RenderType MAP_MARKERS_RENDER_TYPE = RenderType.text(LOCATION_MAP_MARKERS);
     private static MapDecorationClientManager instance;
+    //incremented when the atlas is reloaded so renderers know their sprites are stale
+    private static int atlasGeneration = 0;
 
     public MapDecorationClientManager() {
         super(Minecraft.getInstance().getTextureManager(), LOCATION_MAP_MARKERS, Moonlight.res("map_markers"));
@@ -34,6 +38,15 @@ public class MapDecorationClientManager extends TextureAtlasHolder {
         return instance.getSprite(location);
     }
 
+    public static int getAtlasGeneration() {
+        return atlasGeneration;
+    }
+
+    @ApiStatus.Internal
+    public static void onAtlasReload() {
+        atlasGeneration++;
+    }
+
 
     @Deprecated(forRemoval = true)
     public static <T extends CustomMapDecoration> void registerCustomRenderer(MapDecorationType<T, ?> type, DecorationRenderer<T> renderer) {
@@ -80,5 +93,32 @@ public class MapDecorationClientManager extends TextureAtlasHolder {
         return false;
     }
 
+    /**
+     * Renders all custom decorations of a map. Outlines and names are drawn after all the sprites
+     */
+    @ApiStatus.Internal
+    public static void renderAll(ExpandedMapData data, PoseStack matrixStack, MultiBufferSource buffer,
+                                 MapItemSavedData mapData, boolean isOnFrame, int light) {
+        int index = data.getVanillaDecorationSize();
+        DecorationBatch batch = BATCH;
+        DecorationBatch.active = batch;
+        try {
+            for (CustomMapDecoration decoration : data.getCustomDecorations().values()) {
+                //this shouldn't texture swap if we didn't draw complex shit in their renderers.
+                //still need to get it each time because we might have
+                VertexConsumer vertexBuilder = buffer.getBuffer(MAP_MARKERS_RENDER_TYPE);
+                if (render(decoration, matrixStack, vertexBuilder, buffer, mapData, isOnFrame, light, index))
+                    index++;
+            }
+            batch.flush(buffer);
+        } finally {
+            DecorationBatch.active = null;
+            //drops what a failed renderer left queued so the next map doesn't draw it
+            batch.clear();
+        }
+    }
+
+    private static final DecorationBatch BATCH = new DecorationBatch();
+
 
 }
@@ -68,6 +68,19 @@ public abstract class MapBlockMarker<D extends CustomMapDecoration> {
         return compound;
     }
 
+    /**
+     * Copies this marker through its nbt serialization.
+     * Override if you have data that isn't saved there or if you can do it cheaper
+     *
+     * @return new marker instance, or this one if it could not be loaded back
+     */
+    public MapBlockMarker<D> copy() {
+        MapBlockMarker<D> marker = this.type.loadMarkerFromNBT(this.saveToNBT());
+        if (marker == null) return this;
+        marker.setRotation(this.rot);
+        return marker;
+    }
+
     public boolean shouldRefresh() {
         if (persistent) return false;
         return type.isFromWorld();
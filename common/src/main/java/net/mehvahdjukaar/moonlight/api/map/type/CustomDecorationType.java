@@ -8,16 +8,24 @@ import net.mehvahdjukaar.moonlight.api.map.MapDataRegistry;
 import net.mehvahdjukaar.moonlight.api.map.markers.MapBlockMarker;
 import net.mehvahdjukaar.moonlight.core.Moonlight;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.entity.BlockEntityType;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 // Equivalent of TileEntityType.
@@ -42,6 +50,9 @@ public final class CustomDecorationType<D extends CustomMapDecoration, M extends
     //creates marker from world
     @Nullable
     private final BiFunction<BlockGetter, BlockPos, M> markerFromWorldFactory;
+    //blocks the world factory can find a marker at. Null if unknown
+    @Nullable
+    private final Predicate<Block> targetBlocks;
 
     /**
      * Normal constructor for a decoration type that has a world marker associated. i.e: banners
@@ -54,10 +65,19 @@ public final class CustomDecorationType<D extends CustomMapDecoration, M extends
                                  BiFunction<MapDecorationType<?, ?>, FriendlyByteBuf, D> decorationFactory,
                                  Function<CustomDecorationType<D, M>,M> markerFactory,
                                  @Nullable BiFunction<BlockGetter, BlockPos, M> markerFromWorldFactory) {
+        this(typeId, decorationFactory, markerFactory, markerFromWorldFactory, null);
+    }
+
+    private CustomDecorationType(ResourceLocation typeId,
+                                 BiFunction<MapDecorationType<?, ?>, FriendlyByteBuf, D> decorationFactory,
+                                 Function<CustomDecorationType<D, M>,M> markerFactory,
+                                 @Nullable BiFunction<BlockGetter, BlockPos, M> markerFromWorldFactory,
+                                 @Nullable Predicate<Block> targetBlocks) {
         this.factoryId = typeId;
         this.markerFactory = markerFactory;
         this.markerFromWorldFactory = markerFromWorldFactory;
         this.decorationFactory = decorationFactory;
+        this.targetBlocks = targetBlocks;
     }
 
     /**
@@ -70,6 +90,32 @@ public final class CustomDecorationType<D extends CustomMapDecoration, M extends
         return new CustomDecorationType<>(null, decorationFactory, markerFactory, markerFromWorldFactory);
     }
 
+    /**
+     * Same as above but the world factory will only be called at positions containing one of the given blocks.
+     * Use this when possible as it avoids probing unrelated blocks
+     */
+    public static <D extends CustomMapDecoration, M extends MapBlockMarker<D>> CustomDecorationType<D, M> withWorldMarker(
+            Function<CustomDecorationType<D, M>, M> markerFactory,
+            BiFunction<BlockGetter, BlockPos, M> markerFromWorldFactory,
+            BiFunction<MapDecorationType<?, ?>, FriendlyByteBuf, D> decorationFactory,
+            Block... targetBlocks) {
+        Set<Block> set = Set.of(targetBlocks);
+        return new CustomDecorationType<>(null, decorationFactory, markerFactory, markerFromWorldFactory, set::contains);
+    }
+
+    /**
+     * Same as above but the world factory will only be called at positions containing a block of the given block entity types
+     */
+    public static <D extends CustomMapDecoration, M extends MapBlockMarker<D>> CustomDecorationType<D, M> withWorldMarker(
+            Function<CustomDecorationType<D, M>, M> markerFactory,
+            BiFunction<BlockGetter, BlockPos, M> markerFromWorldFactory,
+            BiFunction<MapDecorationType<?, ?>, FriendlyByteBuf, D> decorationFactory,
+            BlockEntityType<?>... targetTiles) {
+        List<BlockEntityType<?>> tiles = List.of(targetTiles);
+        return new CustomDecorationType<>(null, decorationFactory, markerFactory, markerFromWorldFactory,
+                b -> tiles.stream().anyMatch(t -> t.isValid(b.defaultBlockState())));
+    }
+
     @Deprecated(forRemoval = true)
     public static <D extends CustomMapDecoration, M extends MapBlockMarker<D>> CustomDecorationType<D, M> withWorldMarker(
             ResourceLocation typeId, Supplier<M> markerFactory,
@@ -134,6 +180,18 @@ public final class CustomDecorationType<D extends CustomMapDecoration, M extends
         return markerFromWorldFactory != null ? markerFromWorldFactory.apply(reader, pos) : null;
     }
 
+    @Override
+    @Nullable
+    public Collection<Block> getTargetBlocks() {
+        if (markerFromWorldFactory == null) return List.of();
+        if (targetBlocks == null) return null;
+        List<Block> blocks = new ArrayList<>();
+        for (Block b : BuiltInRegistries.BLOCK) {
+            if (targetBlocks.test(b)) blocks.add(b);
+        }
+        return blocks;
+    }
+
     @Override
     public M createEmptyMarker() {
         return markerFactory.apply(this);
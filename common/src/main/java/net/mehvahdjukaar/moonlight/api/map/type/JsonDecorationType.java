@@ -11,6 +11,7 @@ import net.mehvahdjukaar.moonlight.api.misc.StrOpt;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.HolderSet;
 import net.minecraft.core.RegistryCodecs;
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.FriendlyByteBuf;
@@ -18,10 +19,15 @@ import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.RandomSource;
 import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.levelgen.structure.Structure;
 import net.minecraft.world.level.levelgen.structure.templatesystem.RuleTest;
+import net.minecraft.world.level.levelgen.structure.templatesystem.RuleTestType;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 //Base type for simple data-driven type. Basically a simple version of CustomDecorationType that can be serialized
@@ -99,6 +105,29 @@ public final class JsonDecorationType implements MapDecorationType<CustomMapDeco
         return target != null;
     }
 
+    @Nullable
+    @Override
+    public Collection<Block> getTargetBlocks() {
+        if (target == null) return List.of();
+        RuleTestType<?> testType = target.getType();
+        //these only depend on the state so we can tell which blocks they match in advance
+        if (testType == RuleTestType.BLOCK_TEST || testType == RuleTestType.BLOCKSTATE_TEST ||
+                testType == RuleTestType.TAG_TEST) {
+            RandomSource random = RandomSource.create();
+            List<Block> blocks = new ArrayList<>();
+            for (Block b : BuiltInRegistries.BLOCK) {
+                for (var state : b.getStateDefinition().getPossibleStates()) {
+                    if (target.test(state, random)) {
+                        blocks.add(b);
+                        break;
+                    }
+                }
+            }
+            return blocks;
+        }
+        return null;
+    }
+
     public ResourceLocation getId() {
         return Utils.getID(this);
     }
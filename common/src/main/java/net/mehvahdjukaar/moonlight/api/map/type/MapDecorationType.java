@@ -9,11 +9,14 @@ import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.levelgen.structure.Structure;
 import net.minecraft.world.level.saveddata.maps.MapItemSavedData;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -41,6 +44,15 @@ public interface MapDecorationType<D extends CustomMapDecoration, M extends MapB
     @Nullable
     M getWorldMarkerFromWorld(BlockGetter reader, BlockPos pos);
 
+    /**
+     * Blocks this type can create a world marker from. Used to only ask relevant types when looking for markers.
+     * Null means any block could match so this will be checked at every position
+     */
+    @Nullable
+    default Collection<Block> getTargetBlocks() {
+        return isFromWorld() ? null : List.of();
+    }
+
     default int getDefaultMapColor() {
         return 1;
     }
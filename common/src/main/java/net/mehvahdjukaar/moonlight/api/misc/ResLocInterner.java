@@ -0,0 +1,33 @@
+package net.mehvahdjukaar.moonlight.api.misc;
+
+import com.google.common.collect.MapMaker;
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches parsed resource locations by their string form so hot paths like NBT loading don't have to parse and
+ * allocate a new one every time. Values are weakly held so unused entries get collected
+ */
+public class ResLocInterner {
+
+    private static final ConcurrentMap<String, ResourceLocation> CACHE = new MapMaker()
+            .concurrencyLevel(4)
+            .weakValues()
+            .makeMap();
+
+    /**
+     * Same as new ResourceLocation(id) but returns a shared instance when possible
+     *
+     * @throws net.minecraft.ResourceLocationException if the id is not valid, same as the constructor
+     */
+    public static ResourceLocation parse(String id) {
+        ResourceLocation res = CACHE.get(id);
+        if (res == null) {
+            res = new ResourceLocation(id);
+            ResourceLocation old = CACHE.putIfAbsent(id, res);
+            if (old != null) return old;
+        }
+        return res;
+    }
+}
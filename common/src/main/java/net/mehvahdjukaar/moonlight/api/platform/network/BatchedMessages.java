@@ -0,0 +1,50 @@
+package net.mehvahdjukaar.moonlight.api.platform.network;
+
+import net.minecraft.network.FriendlyByteBuf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * All the messages a batched channel sent to a player during a tick.
+ * Each entry is the message index in its channel followed by its length prefixed data
+ */
+class BatchedMessages implements Message {
+
+    private final FriendlyByteBuf data;
+    private final List<Message> messages;
+
+    BatchedMessages(FriendlyByteBuf data) {
+        this.data = data;
+        this.messages = List.of();
+    }
+
+    private BatchedMessages(List<Message> messages) {
+        this.data = null;
+        this.messages = messages;
+    }
+
+    static BatchedMessages read(ChannelHandler channel, FriendlyByteBuf buf) {
+        List<Message> messages = new ArrayList<>();
+        while (buf.isReadable()) {
+            int index = buf.readVarInt();
+            int length = buf.readVarInt();
+            FriendlyByteBuf slice = new FriendlyByteBuf(buf.readSlice(length));
+            messages.add(channel.decodeIndexed(index, slice));
+        }
+        return new BatchedMessages(messages);
+    }
+
+    @Override
+    public void writeToBuffer(FriendlyByteBuf buf) {
+        buf.writeBytes(data, data.readerIndex(), data.readableBytes());
+    }
+
+    @Override
+    public void handle(ChannelHandler.Context context) {
+        //same order they were sent in
+        for (Message m : messages) {
+            m.handle(context);
+        }
+    }
+}
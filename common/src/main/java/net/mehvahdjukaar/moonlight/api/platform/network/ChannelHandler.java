@@ -1,6 +1,9 @@
 package net.mehvahdjukaar.moonlight.api.platform.network;
 
 import dev.architectury.injectables.annotations.ExpectPlatform;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectLinkedOpenHashMap;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.chat.Component;
@@ -9,7 +12,10 @@ import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
+import org.jetbrains.annotations.ApiStatus;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Function;
 import java.util.function.IntSupplier;
 
@@ -36,6 +42,17 @@ public abstract class ChannelHandler {
                 Class<M> messageClass,
                 Function<FriendlyByteBuf, M> decoder) {
             instance.register(direction, messageClass, decoder);
+            instance.indices.put(messageClass, instance.decoders.size());
+            instance.decoders.add(decoder);
+            return this;
+        }
+
+        /**
+         * Messages sent to a player during a server tick will be packed in a single packet sent at the end of it.
+         * Use for channels that send many small messages. Must be set on both sides
+         */
+        public Builder batched() {
+            instance.enableBatching();
             return this;
         }
 
@@ -70,8 +87,151 @@ public abstract class ChannelHandler {
 
     protected final String name;
 
+    //messages registered with the builder, by their index. Used to encode them in batches
+    private final List<Function<FriendlyByteBuf, ? extends Message>> decoders = new ArrayList<>();
+    private final Reference2IntOpenHashMap<Class<?>> indices = new Reference2IntOpenHashMap<>();
+    private boolean batched = false;
+    //guarded by itself. Off thread sends flush them too
+    private final Reference2ObjectLinkedOpenHashMap<ServerPlayer, FriendlyByteBuf> pendingBatches = new Reference2ObjectLinkedOpenHashMap<>();
+
+    //below the 1MiB custom payload limit, leaving room for the packet headers
+    private static final int MAX_BATCH_SIZE = 1_000_000;
+    //two var ints: index and length
+    private static final int ENTRY_HEADER_SIZE = 10;
+
+    private static final List<ChannelHandler> BATCHED_CHANNELS = new ArrayList<>();
+
     protected ChannelHandler(String modId) {
         this.name = modId;
+        this.indices.defaultReturnValue(-1);
+    }
+
+    private void enableBatching() {
+        if (batched) return;
+        batched = true;
+        //not in indices so it's never batched itself
+        register(NetworkDir.PLAY_TO_CLIENT, BatchedMessages.class, buf -> BatchedMessages.read(this, buf));
+        BATCHED_CHANNELS.add(this);
+    }
+
+    protected static boolean isBatch(Class<?> messageClass) {
+        return messageClass == BatchedMessages.class;
+    }
+
+    Message decodeIndexed(int index, FriendlyByteBuf buf) {
+        if (index < 0 || index >= decoders.size()) {
+            throw new IllegalStateException("Unknown message index " + index + " in batch for channel " + name);
+        }
+        return decoders.get(index).apply(buf);
+    }
+
+    /**
+     * If broadcasts can send a single packet to all their targets. Otherwise they should send to each player
+     */
+    protected boolean canBroadcastDirectly(Message message) {
+        return !batched && message.canShareEncoding();
+    }
+
+    /**
+     * @return true if the message was queued to be sent with the others at the end of the tick.
+     * Otherwise the player pending batch has already been sent so the message can be sent right after it
+     */
+    protected boolean queueForBatch(ServerPlayer player, Message message) {
+        if (!batched) return false;
+        synchronized (pendingBatches) {
+            int index = getBatchIndex(player, message);
+            if (index == -1) {
+                flushBatch(player);
+                return false;
+            }
+            FriendlyByteBuf data = new FriendlyByteBuf(Unpooled.buffer());
+            message.writeToBuffer(data);
+            return appendToBatch(player, index, data);
+        }
+    }
+
+    /**
+     * Sends the message to each player. When they get batched the message is encoded only once for all of them
+     */
+    protected void sendToEach(Iterable<ServerPlayer> players, Message message) {
+        if (!batched || !message.canShareEncoding()) {
+            for (ServerPlayer p : players) {
+                sendToClientPlayer(p, message);
+            }
+            return;
+        }
+        FriendlyByteBuf data = null;
+        for (ServerPlayer p : players) {
+            boolean queued = false;
+            synchronized (pendingBatches) {
+                int index = getBatchIndex(p, message);
+                if (index == -1) {
+                    flushBatch(p);
+                } else {
+                    if (data == null) {
+                        data = new FriendlyByteBuf(Unpooled.buffer());
+                        message.writeToBuffer(data);
+                    }
+                    queued = appendToBatch(p, index, data);
+                }
+            }
+            if (!queued) sendToClientPlayer(p, message);
+        }
+    }
+
+    private int getBatchIndex(ServerPlayer player, Message message) {
+        if (!player.server.isSameThread()) return -1;
+        return indices.getInt(message.getClass());
+    }
+
+    private boolean appendToBatch(ServerPlayer player, int index, FriendlyByteBuf data) {
+        int size = data.readableBytes() + ENTRY_HEADER_SIZE;
+        if (size > MAX_BATCH_SIZE) {
+            //too big to be batched at all
+            flushBatch(player);
+            return false;
+        }
+        FriendlyByteBuf batch = pendingBatches.get(player);
+        if (batch != null && batch.readableBytes() + size > MAX_BATCH_SIZE) {
+            flushBatch(player);
+            batch = null;
+        }
+        if (batch == null) {
+            batch = new FriendlyByteBuf(Unpooled.buffer());
+            pendingBatches.put(player, batch);
+        }
+        batch.writeVarInt(index);
+        batch.writeVarInt(data.readableBytes());
+        batch.writeBytes(data, data.readerIndex(), data.readableBytes());
+        return true;
+    }
+
+    private void flushBatch(ServerPlayer player) {
+        FriendlyByteBuf batch;
+        synchronized (pendingBatches) {
+            batch = pendingBatches.remove(player);
+        }
+        if (batch != null && !player.hasDisconnected()) {
+            sendToClientPlayer(player, new BatchedMessages(batch));
+        }
+    }
+
+    private void flushBatches() {
+        List<ServerPlayer> players;
+        synchronized (pendingBatches) {
+            if (pendingBatches.isEmpty()) return;
+            players = new ArrayList<>(pendingBatches.keySet());
+        }
+        for (ServerPlayer player : players) {
+            flushBatch(player);
+        }
+    }
+
+    @ApiStatus.Internal
+    public static void flushAllBatches() {
+        for (var c : BATCHED_CHANNELS) {
+            c.flushBatches();
+        }
     }
 
     @Deprecated
@@ -7,4 +7,12 @@ public interface Message {
     void writeToBuffer(FriendlyByteBuf buf);
 
     void handle(ChannelHandler.Context context);
+
+    /**
+     * Broadcasts encode a message once and send the same packet to every player.
+     * Return false if this needs to be encoded again for each player it's sent to
+     */
+    default boolean canShareEncoding() {
+        return true;
+    }
 }
\ No newline at end of file
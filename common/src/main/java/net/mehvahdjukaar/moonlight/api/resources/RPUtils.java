@@ -6,6 +6,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.internal.Streams;
 import com.google.gson.stream.JsonWriter;
 import net.mehvahdjukaar.moonlight.api.client.TextureCache;
+import net.mehvahdjukaar.moonlight.api.misc.ResLocInterner;
 import net.mehvahdjukaar.moonlight.api.resources.pack.DynamicTexturePack;
 import net.mehvahdjukaar.moonlight.api.resources.recipe.IRecipeTemplate;
 import net.mehvahdjukaar.moonlight.api.resources.recipe.TemplateRecipeManager;
@@ -71,7 +72,7 @@ public class RPUtils {
     public static ResourceLocation findFirstBlockTextureLocation(ResourceManager manager, Block block, Predicate<String> texturePredicate) throws FileNotFoundException {
         var cached = TextureCache.getCached(block, texturePredicate);
         if (cached != null) {
-            return new ResourceLocation(cached);
+            return ResLocInterner.parse(cached);
         }
         ResourceLocation blockId = Utils.getID(block);
         var blockState = manager.getResource(ResType.BLOCKSTATES.getPath(blockId));
@@ -156,7 +157,7 @@ public class RPUtils {
      */
     public static ResourceLocation findFirstItemTextureLocation(ResourceManager manager, Item item, Predicate<String> texturePredicate) throws FileNotFoundException {
         var cached = TextureCache.getCached(item, texturePredicate);
-        if (cached != null) return new ResourceLocation(cached);
+        if (cached != null) return ResLocInterner.parse(cached);
         ResourceLocation itemId = Utils.getID(item);
 
         Set<String> textures;
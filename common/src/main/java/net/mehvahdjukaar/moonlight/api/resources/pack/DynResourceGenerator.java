@@ -1,6 +1,5 @@
 package net.mehvahdjukaar.moonlight.api.resources.pack;
 
-import com.google.common.base.Stopwatch;
 import net.mehvahdjukaar.moonlight.api.events.EarlyPackReloadEvent;
 import net.mehvahdjukaar.moonlight.api.events.MoonlightEventsHelper;
 import net.mehvahdjukaar.moonlight.api.platform.PlatHelper;
@@ -8,6 +7,7 @@ import net.mehvahdjukaar.moonlight.api.resources.ResType;
 import net.mehvahdjukaar.moonlight.api.resources.StaticResource;
 import net.mehvahdjukaar.moonlight.core.Moonlight;
 import net.mehvahdjukaar.moonlight.core.misc.FilteredResManager;
+import net.mehvahdjukaar.moonlight.core.misc.StartupProfiler;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.repository.PackRepository;
 import net.minecraft.server.packs.resources.PreparableReloadListener;
@@ -17,6 +17,7 @@ import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.Nullable;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
@@ -27,6 +28,7 @@ public abstract class DynResourceGenerator<T extends DynamicResourcePack> implem
     public final T dynamicPack;
     protected final String modId;
     private boolean hasBeenInitialized;
+    private boolean profileGeneration;
 
     //creates this object and registers it
     protected DynResourceGenerator(T pack, String modId) {
@@ -88,52 +90,71 @@ public abstract class DynResourceGenerator<T extends DynamicResourcePack> implem
     }
 
     protected final void reloadResources(ResourceManager manager) {
-        Stopwatch watch = Stopwatch.createStarted();
-
-        boolean resourcePackSupport = this.dependsOnLoadedPacks();
-        //first clear all pack content if it should be cleared
+        //only the first generation is part of startup
+        this.profileGeneration = !this.hasBeenInitialized;
+        var section = StartupProfiler.startIf(this.profileGeneration, profilerCategory(), profilerName());
+        try {
+            boolean resourcePackSupport = this.dependsOnLoadedPacks();
+            //first clear all pack content if it should be cleared
+
+            if (!this.hasBeenInitialized) {
+                this.hasBeenInitialized = true;
+                //TODO: figure out why this is need. I got no clue but we get missing models if not.
+                if (this.dynamicPack instanceof DynamicTexturePack tp) tp.addPackLogo();
+                if (!resourcePackSupport) {
+                    var repository = this.getRepository();
+                    if (repository != null) {
+                        Moonlight.CAN_EARLY_RELOAD_HACK.set(false);
+                        //no resource pack support, just include these
+                        FilteredResManager vanillaManager = FilteredResManager.including(repository,this.dynamicPack.packType,
+                                "vanilla","mod_resources");
+                        Moonlight.CAN_EARLY_RELOAD_HACK.set(true);
+                        this.regenerateProfiled(vanillaManager, "vanilla_resources");
+                        vanillaManager.close();
+                    } else {
+                        this.regenerateProfiled(manager, "all_resources");
+                    }
+                }
+            }
 
-        if (!this.hasBeenInitialized) {
-            this.hasBeenInitialized = true;
-            //TODO: figure out why this is need. I got no clue but we get missing models if not.
-            if (this.dynamicPack instanceof DynamicTexturePack tp) tp.addPackLogo();
-            if (!resourcePackSupport) {
+            //generate textures
+            if (resourcePackSupport) {
                 var repository = this.getRepository();
-                if (repository != null) {
+                // only needed on second reload since there will be no pack on first
+                // and only if the pack itself doesn't get cleared
+                if(repository != null && hasBeenInitialized && !dynamicPack.clearOnReload) {
                     Moonlight.CAN_EARLY_RELOAD_HACK.set(false);
-                    //no resource pack support, just include these
-                    FilteredResManager vanillaManager = FilteredResManager.including(repository,this.dynamicPack.packType,
-                            "vanilla","mod_resources");
+                    FilteredResManager nonSelfManager = FilteredResManager.excluding(repository, this.dynamicPack.packType,
+                            dynamicPack.packId());
                     Moonlight.CAN_EARLY_RELOAD_HACK.set(true);
-                    this.regenerateDynamicAssets(vanillaManager);
-                    vanillaManager.close();
-                } else {
-                    this.regenerateDynamicAssets(manager);
+                    this.regenerateProfiled(nonSelfManager, "non_self_resources");
+                    nonSelfManager.close();
                 }
+                this.regenerateProfiled(manager, "all_resources");
             }
-        }
-
-        //generate textures
-        if (resourcePackSupport) {
-            var repository = this.getRepository();
-            // only needed on second reload since there will be no pack on first
-            // and only if the pack itself doesn't get cleared
-            if(repository != null && hasBeenInitialized && !dynamicPack.clearOnReload) {
-                Moonlight.CAN_EARLY_RELOAD_HACK.set(false);
-                FilteredResManager nonSelfManager = FilteredResManager.excluding(repository, this.dynamicPack.packType,
-                        dynamicPack.packId());
-                Moonlight.CAN_EARLY_RELOAD_HACK.set(true);
-                this.regenerateDynamicAssets(nonSelfManager);
-                nonSelfManager.close();
-            }
-            this.regenerateDynamicAssets(manager);
+        } finally {
+            section.close();
         }
         getLogger().info("Generated runtime {} for pack {} ({}) in: {} ms" +
                         (this.dynamicPack.generateDebugResources ? " (debug resource dump on)" : ""),
                 this.dynamicPack.getPackType(),
                 this.dynamicPack.packId(),
                 this.modId,
-                watch.elapsed().toMillis());
+                section.elapsedMillis());
+    }
+
+    private void regenerateProfiled(ResourceManager manager, String phase) {
+        try (var s = StartupProfiler.startIf(this.profileGeneration, profilerCategory(), profilerName(), phase)) {
+            this.regenerateDynamicAssets(manager);
+        }
+    }
+
+    private String profilerCategory() {
+        return "dynamic_" + this.dynamicPack.getPackType().name().toLowerCase(Locale.ROOT);
+    }
+
+    private String profilerName() {
+        return this.modId + ":" + this.dynamicPack.packId();
     }
 
     @Nullable
@@ -58,6 +58,42 @@ public class BlockSetAPI {
         void accept(Registrator<E> reg, Collection<T> wood);
     }
 
+    /**
+     * Per type factory used by {@link #addParallelDynamicRegistration}.
+     * Preparation runs on worker threads, creation and registration happen on the registration thread in type order
+     *
+     * @param <T> block type
+     * @param <P> prepared data, for example block properties
+     * @param <E> registry entry
+     */
+    public interface BlockTypeEntryFactory<T extends BlockType, P, E> {
+
+        /**
+         * Called on a worker thread. Do your heavy lifting here (copying properties, computing shapes...).
+         * Must not create blocks or items nor touch registries as those are not thread safe
+         *
+         * @return prepared data or null to skip this type
+         */
+        @Nullable
+        P prepare(T type);
+
+        /**
+         * Called on the registration thread with the data prepared for this type
+         *
+         * @return the new entry or null to skip this type
+         */
+        @Nullable
+        E create(T type, P prepared);
+
+        ResourceLocation getId(T type);
+
+        /**
+         * Called right after the entry has been registered. Use to add it as a child of its type
+         */
+        default void onRegistered(T type, E entry) {
+        }
+    }
+
     /**
      * Add a registry function meant to register a set of blocks that use a specific wood type
      * Other entries like items can access the block types directly since it will be filled
@@ -83,6 +119,17 @@ public class BlockSetAPI {
     }
 
 
+    /**
+     * Like {@link #addDynamicRegistration} but with a per type factory. Expensive preparation runs on a worker pool
+     * for all types at once, then all entries get created and registered in a single ordered batch
+     *
+     * @param factory entry factory
+     */
+    public static <T extends BlockType, P, E> void addParallelDynamicRegistration(
+            BlockTypeEntryFactory<T, P, E> factory, Class<T> blockType, Registry<E> registry) {
+        BlockSetInternal.addParallelDynamicRegistration(factory, blockType, registry);
+    }
+
     /**
      * Grabs all blockTypes registries
      */
@@ -116,6 +163,21 @@ public class BlockSetAPI {
         return BlockType.changeType(current, originalMat, destinationMat);
     }
 
+    /**
+     * Swaps a block or item to the same variant of the given type. Unlike changeType the original type doesn't need
+     * to be known and the lookup uses precomputed tables
+     *
+     * @param current         target block or item
+     * @param destinationType desired block type
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public static <T extends BlockType> Object swap(Object current, T destinationType) {
+        BlockTypeRegistry<T> registry = BlockSetInternal.getRegistry((Class<T>) destinationType.getClass());
+        if (registry == null) return null;
+        return registry.swap(current, destinationType);
+    }
+
     //for items
     @Nullable
     public static Item changeItemType(Item current, BlockType originalMat, BlockType destinationMat) {
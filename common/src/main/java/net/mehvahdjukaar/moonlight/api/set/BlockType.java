@@ -27,6 +27,8 @@ public abstract class BlockType {
     //stuff made out of this type
     private final BiMap<String, Object> children = HashBiMap.create();
     public final ResourceLocation id;
+    //position in its registry once frozen. Used by the registry lookup tables
+    int registryOrdinal = -1;
 
     protected BlockType(ResourceLocation resourceLocation) {
         this.id = resourceLocation;
@@ -198,6 +200,16 @@ public abstract class BlockType {
     @Nullable
     public static Object changeType(Object current, BlockType originalMat, BlockType destinationMat) {
         if (destinationMat == originalMat) return current;
+        var registry = BlockSetInternal.getRegistry(originalMat.getClass());
+        if (registry != null) {
+            return registry.changeType(current, originalMat, destinationMat);
+        }
+        return changeTypeByKey(current, originalMat, destinationMat);
+    }
+
+    //lookup by child key. Used when the registry tables can't answer
+    @Nullable
+    static Object changeTypeByKey(Object current, BlockType originalMat, BlockType destinationMat) {
         String key = originalMat.getChildKey(current);
         if (key != null) {
             return destinationMat.getChild(key);
@@ -1,8 +1,9 @@
 package net.mehvahdjukaar.moonlight.api.set;
 
 import com.google.common.collect.ImmutableMap;
-import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.mehvahdjukaar.moonlight.api.events.AfterLanguageLoadEvent;
+import net.mehvahdjukaar.moonlight.api.misc.ResLocInterner;
 import net.mehvahdjukaar.moonlight.api.platform.ClientHelper;
 import net.mehvahdjukaar.moonlight.api.util.Utils;
 import net.mehvahdjukaar.moonlight.core.Moonlight;
@@ -10,12 +11,14 @@ import net.minecraft.Util;
 import net.minecraft.core.Registry;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.level.ItemLike;
 import net.minecraft.world.level.block.Block;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class BlockTypeRegistry<T extends BlockType> {
 
@@ -26,7 +29,11 @@ public abstract class BlockTypeRegistry<T extends BlockType> {
     protected final List<T> builder = new ArrayList<>();
     private final Class<T> typeClass;
     private Map<ResourceLocation, T> types = new LinkedHashMap<>();
-    private final Object2ObjectOpenHashMap<Object, T> childrenToType = new Object2ObjectOpenHashMap<>();
+    private final Map<Object, T> childrenToType = new ConcurrentHashMap<>();
+    //dense reverse lookup indexed by raw registry id. Built once all children are registered
+    @Nullable
+    private volatile ChildrenIndex childrenIndex = null;
+    private volatile boolean childrenRegistered = false;
 
     protected BlockTypeRegistry(Class<T> typeClass, String name) {
         this.typeClass = typeClass;
@@ -44,7 +51,7 @@ public abstract class BlockTypeRegistry<T extends BlockType> {
      * @return wood type
      */
     public T getFromNBT(String name) {
-        return this.types.getOrDefault(new ResourceLocation(name), this.getDefaultType());
+        return this.types.getOrDefault(ResLocInterner.parse(name), this.getDefaultType());
     }
 
     @Nullable
@@ -114,6 +121,10 @@ public abstract class BlockTypeRegistry<T extends BlockType> {
             });
         }
         this.types = ImmutableMap.copyOf(linkedHashMap);
+        int ordinal = 0;
+        for (T t : this.types.values()) {
+            t.registryOrdinal = ordinal++;
+        }
         builder.clear();
         this.frozen = true;
     }
@@ -155,11 +166,247 @@ public abstract class BlockTypeRegistry<T extends BlockType> {
     }
 
     @Nullable
+    @SuppressWarnings("unchecked")
     public T getBlockTypeOf(ItemLike itemLike) {
-        return childrenToType.getOrDefault(itemLike, null);
+        ChildrenIndex index = this.getChildrenIndex();
+        if (index != null) {
+            Object found;
+            if (itemLike instanceof Block b) {
+                found = index.getBlockType(b);
+            } else if (itemLike instanceof Item i) {
+                found = index.getItemType(i);
+            } else {
+                return getMappedBlockTypeOf(itemLike);
+            }
+            if (found != null || index.complete) return (T) found;
+        }
+        return getMappedBlockTypeOf(itemLike);
+    }
+
+    @Nullable
+    private T getMappedBlockTypeOf(Object itemLike) {
+        return childrenToType.get(itemLike);
     }
 
     protected void mapObjectToType(Object itemLike, BlockType type) {
         this.childrenToType.put(itemLike, (T) type);
+        //children added after registration. tables get rebuilt on next lookup
+        if (this.childrenRegistered) this.childrenIndex = null;
+    }
+
+    /**
+     * Builds the raw id lookup tables. Called once all children are registered and whenever block or item raw ids
+     * get remapped. Until then lookups go through the children map
+     */
+    @ApiStatus.Internal
+    public void rebuildIdIndex() {
+        this.childrenRegistered = true;
+        this.childrenIndex = ChildrenIndex.build(this.childrenToType, this.types.values());
+    }
+
+    /**
+     * Swaps a child of this registry with the same variant of the given type. Uses tables precomputed once the
+     * registry is frozen so block and item lookups don't have to scan the children of their type
+     *
+     * @param current         block or item made out of one of these types
+     * @param destinationType desired block type
+     * @return the equivalent object or null if current isn't a child or destination doesn't have that variant
+     */
+    @Nullable
+    public Object swap(Object current, T destinationType) {
+        ChildrenIndex index = this.getChildrenIndex();
+        if (index != null) {
+            int key = index.getChildKeyId(current, null);
+            if (key >= 0) return index.getChild(destinationType, key);
+            if (key == ChildrenIndex.NOT_A_CHILD) return null;
+        }
+        T originalType = getMappedBlockTypeOf(current);
+        if (originalType == null) return null;
+        return BlockType.changeTypeByKey(current, originalType, destinationType);
+    }
+
+    /**
+     * Same as {@link BlockType#changeType(Object, BlockType, BlockType)} but using the precomputed tables when possible
+     */
+    @ApiStatus.Internal
+    @Nullable
+    public Object changeType(Object current, BlockType originalType, BlockType destinationType) {
+        ChildrenIndex index = this.getChildrenIndex();
+        if (index != null) {
+            int key = index.getChildKeyId(current, originalType);
+            if (key >= 0) return index.getChild(destinationType, key);
+            if (key == ChildrenIndex.NOT_A_CHILD) return null;
+        }
+        return BlockType.changeTypeByKey(current, originalType, destinationType);
+    }
+
+    @Nullable
+    private ChildrenIndex getChildrenIndex() {
+        ChildrenIndex index = this.childrenIndex;
+        if (index == null && this.childrenRegistered) {
+            synchronized (this) {
+                index = this.childrenIndex;
+                if (index == null) {
+                    index = ChildrenIndex.build(this.childrenToType, this.types.values());
+                    this.childrenIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Block and item children laid out by their raw registry id. Each slot also holds the object it was built for
+     * so a stale id never returns a wrong type.
+     * Child keys are interned to dense ids so each type can store its children in a flat array
+     */
+    private static final class ChildrenIndex {
+
+        private static final int NOT_A_CHILD = -1;
+        private static final int UNKNOWN = -2;
+
+        private final Object[] blocks;
+        private final Object[] blockTypes;
+        private final int[] blockKeys;
+        private final Object[] items;
+        private final Object[] itemTypes;
+        private final int[] itemKeys;
+        //false if some children had no id yet. Misses then have to go through the map
+        private final boolean complete;
+        private final String[] keyNames;
+        //children of each type by key id, indexed by the type registry ordinal
+        private final BlockType[] tableTypes;
+        private final Object[][] variantTables;
+
+        private ChildrenIndex(int blockSize, int itemSize, boolean complete, String[] keyNames,
+                              BlockType[] tableTypes, Object[][] variantTables) {
+            this.blocks = new Object[blockSize];
+            this.blockTypes = new Object[blockSize];
+            this.blockKeys = new int[blockSize];
+            this.items = new Object[itemSize];
+            this.itemTypes = new Object[itemSize];
+            this.itemKeys = new int[itemSize];
+            this.complete = complete;
+            this.keyNames = keyNames;
+            this.tableTypes = tableTypes;
+            this.variantTables = variantTables;
+        }
+
+        private static ChildrenIndex build(Map<Object, ? extends BlockType> childrenToType,
+                                           Collection<? extends BlockType> types) {
+            Object2IntOpenHashMap<String> keyIds = new Object2IntOpenHashMap<>();
+            keyIds.defaultReturnValue(-1);
+            List<String> keyNames = new ArrayList<>();
+            for (BlockType t : types) {
+                for (var c : t.getChildren()) {
+                    if (keyIds.putIfAbsent(c.getKey(), keyNames.size()) == -1) keyNames.add(c.getKey());
+                }
+            }
+            BlockType[] tableTypes = new BlockType[types.size()];
+            Object[][] variantTables = new Object[types.size()][];
+            for (BlockType t : types) {
+                Object[] table = new Object[keyNames.size()];
+                for (var c : t.getChildren()) {
+                    table[keyIds.getInt(c.getKey())] = c.getValue();
+                }
+                tableTypes[t.registryOrdinal] = t;
+                variantTables[t.registryOrdinal] = table;
+            }
+
+            int maxBlock = -1;
+            int maxItem = -1;
+            boolean complete = true;
+            for (Object o : childrenToType.keySet()) {
+                int id;
+                if (o instanceof Block b) {
+                    id = BuiltInRegistries.BLOCK.getId(b);
+                    maxBlock = Math.max(maxBlock, id);
+                } else if (o instanceof Item i) {
+                    id = BuiltInRegistries.ITEM.getId(i);
+                    maxItem = Math.max(maxItem, id);
+                } else continue;
+                if (id < 0) complete = false;
+            }
+            ChildrenIndex index = new ChildrenIndex(maxBlock + 1, maxItem + 1, complete,
+                    keyNames.toArray(String[]::new), tableTypes, variantTables);
+            for (var e : childrenToType.entrySet()) {
+                Object o = e.getKey();
+                BlockType type = e.getValue();
+                String key = type.getChildKey(o);
+                int keyId = key == null ? UNKNOWN : keyIds.getInt(key);
+                //types that aren't part of this registry can't use the tables
+                if (keyId < 0 || !index.hasTable(type)) keyId = UNKNOWN;
+                if (o instanceof Block b) {
+                    int id = BuiltInRegistries.BLOCK.getId(b);
+                    if (id >= 0) {
+                        index.blocks[id] = b;
+                        index.blockTypes[id] = type;
+                        index.blockKeys[id] = keyId;
+                    }
+                } else if (o instanceof Item i) {
+                    int id = BuiltInRegistries.ITEM.getId(i);
+                    if (id >= 0) {
+                        index.items[id] = i;
+                        index.itemTypes[id] = type;
+                        index.itemKeys[id] = keyId;
+                    }
+                }
+            }
+            return index;
+        }
+
+        @Nullable
+        private Object getBlockType(Block block) {
+            int id = BuiltInRegistries.BLOCK.getId(block);
+            if (id >= 0 && id < blocks.length && blocks[id] == block) return blockTypes[id];
+            return null;
+        }
+
+        @Nullable
+        private Object getItemType(Item item) {
+            int id = BuiltInRegistries.ITEM.getId(item);
+            if (id >= 0 && id < items.length && items[id] == item) return itemTypes[id];
+            return null;
+        }
+
+        /**
+         * @param owner expected type of the object. Null to accept whichever type it belongs to
+         * @return dense key id of the object, {@link #NOT_A_CHILD} or {@link #UNKNOWN} if the slow path is needed
+         */
+        private int getChildKeyId(Object o, @Nullable BlockType owner) {
+            Object[] keys;
+            Object[] types;
+            int[] keyIds;
+            int id;
+            if (o instanceof Block b) {
+                keys = blocks;
+                types = blockTypes;
+                keyIds = blockKeys;
+                id = BuiltInRegistries.BLOCK.getId(b);
+            } else if (o instanceof Item i) {
+                keys = items;
+                types = itemTypes;
+                keyIds = itemKeys;
+                id = BuiltInRegistries.ITEM.getId(i);
+            } else return UNKNOWN;
+            if (id >= 0 && id < keys.length && keys[id] == o) {
+                //children shared between types are only mapped to one of them
+                if (owner != null && types[id] != owner) return UNKNOWN;
+                return keyIds[id];
+            }
+            return complete ? NOT_A_CHILD : UNKNOWN;
+        }
+
+        private boolean hasTable(BlockType type) {
+            int o = type.registryOrdinal;
+            return o >= 0 && o < tableTypes.length && tableTypes[o] == type;
+        }
+
+        @Nullable
+        private Object getChild(BlockType type, int keyId) {
+            if (hasTable(type)) return variantTables[type.registryOrdinal][keyId];
+            //destination from another registry
+            return type.getChild(keyNames[keyId]);
+        }
     }
 }
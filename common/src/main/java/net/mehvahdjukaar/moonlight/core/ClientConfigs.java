@@ -13,6 +13,7 @@ public class ClientConfigs {
     public static final Supplier<Boolean> MERGE_PACKS;
     public static final Supplier<Boolean> LAZY_MAP_DATA;
     public static final Supplier<Integer> MAPS_MIPMAP;
+    public static final Supplier<Integer> MAP_DECORATIONS_CACHE_DISTANCE;
 
     public static final ConfigSpec CONFIG;
 
@@ -26,6 +27,9 @@ public class ClientConfigs {
                 .define("lazy_map_upload", true);
         MAPS_MIPMAP = builder.comment("Renders map textures using mipmap. Vastly improves look from afar as well when inside a Map Atlas from Map Atlases or similar. Set to 0 to have no mipmap like vanilla")
                 .define("maps_mipmap", 3, 0, 4);
+        MAP_DECORATIONS_CACHE_DISTANCE = builder.comment("Maps in item frames further than this many blocks will draw their markers from a cached texture instead of rendering each one. " +
+                        "Improves performance with big map walls. Set to 0 to disable")
+                .define("cached_map_markers_distance", 0, 0, 512);
         builder.pop();
         CONFIG = builder.buildAndRegister();
         CONFIG.loadFromFile();
@@ -75,6 +75,15 @@ public class Moonlight {
 
     private static void commonSetup() {
         BlocksColorInternal.setup();
+        //all children are registered by now
+        BlockSetInternal.rebuildIdIndexes();
+        SoftFluidRegistry.onRegistryIdsRemapped();
+    }
+
+    @EventCalled
+    public static void onRegistryIdsRemapped() {
+        BlockSetInternal.rebuildIdIndexes();
+        SoftFluidRegistry.onRegistryIdsRemapped();
     }
 
     @EventCalled
@@ -100,6 +109,8 @@ public class Moonlight {
         RegistryAccessJsonReloadListener.runReloads(registryAccess);
         DynamicResourcePack.clearAfterReload(PackType.SERVER_DATA);
         DataObjectReference.onDataReload();
+        MapDataInternal.clearNetworkIds();
+        MapDataInternal.clearMarkerDispatch();
     }
 
     @EventCalled
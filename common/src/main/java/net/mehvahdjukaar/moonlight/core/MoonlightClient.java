@@ -53,6 +53,9 @@ public class MoonlightClient {
     @EventCalled
     public static void afterTextureReload() {
         DynamicResourcePack.clearAfterReload(PackType.CLIENT_RESOURCES);
+        //atlas is ready now
+        SoftFluidParticleColors.scheduleRefresh();
+        MapDecorationClientManager.onAtlasReload();
     }
 
     public static void setMipMap(boolean b) {
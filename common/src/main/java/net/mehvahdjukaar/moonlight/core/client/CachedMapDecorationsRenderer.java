@@ -0,0 +1,128 @@
+package net.mehvahdjukaar.moonlight.core.client;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.mehvahdjukaar.moonlight.api.client.texture_renderer.FrameBufferBackedDynamicTexture;
+import net.mehvahdjukaar.moonlight.api.client.texture_renderer.RenderedTexturesManager;
+import net.mehvahdjukaar.moonlight.api.map.CustomMapDecoration;
+import net.mehvahdjukaar.moonlight.api.map.ExpandedMapData;
+import net.mehvahdjukaar.moonlight.api.map.client.MapDecorationClientManager;
+import net.mehvahdjukaar.moonlight.core.ClientConfigs;
+import net.mehvahdjukaar.moonlight.core.Moonlight;
+import net.minecraft.client.renderer.LightTexture;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.world.level.saveddata.maps.MapItemSavedData;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Bakes the custom decorations of maps in item frames into a texture so far away ones can be drawn as a single quad.
+ * Textures are redrawn at the start of the next frame when decorations change. Enabled by a client config
+ */
+public class CachedMapDecorationsRenderer {
+
+    private static final int TEXTURE_SIZE = 256;
+    //weak so entries go away with the client map data
+    private static final Map<MapItemSavedData, Entry> ENTRIES = new WeakHashMap<>();
+    //last entry drawn for each map id. Textures are per id and draw this one
+    private static final Int2ObjectOpenHashMap<WeakReference<Entry>> BY_ID = new Int2ObjectOpenHashMap<>();
+    //own buffer so we don't flush the world ones while drawing to a texture
+    private static final MultiBufferSource.BufferSource BUFFER = MultiBufferSource.immediate(new BufferBuilder(256));
+    private static final Vector3f POS = new Vector3f();
+
+    private static class Entry {
+        private final MapItemSavedData data;
+        private FrameBufferBackedDynamicTexture texture = null;
+        private List<CustomMapDecoration> snapshot = List.of();
+        private boolean redrawQueued = false;
+
+        private Entry(MapItemSavedData data) {
+            this.data = data;
+        }
+
+        private void queueRedraw() {
+            if (!redrawQueued) {
+                redrawQueued = true;
+                //not in the middle of world rendering
+                RenderSystem.recordRenderCall(() -> {
+                    redrawQueued = false;
+                    texture.redraw();
+                });
+            }
+        }
+    }
+
+    /**
+     * @return true if the decorations were drawn from the cache
+     */
+    public static boolean render(int mapId, MapItemSavedData mapData, ExpandedMapData data, PoseStack poseStack,
+                                 MultiBufferSource buffer, int light) {
+        int distance = ClientConfigs.MAP_DECORATIONS_CACHE_DISTANCE.get();
+        if (distance <= 0) return false;
+        Collection<CustomMapDecoration> decorations = data.getCustomDecorations().values();
+        if (decorations.isEmpty()) return true;
+        Matrix4f pose = poseStack.last().pose();
+        //pose is relative to the camera
+        if (pose.getTranslation(POS).lengthSquared() < distance * distance) return false;
+
+        Entry entry = ENTRIES.computeIfAbsent(mapData, Entry::new);
+        var ref = BY_ID.get(mapId);
+        if (ref == null || ref.get() != entry) BY_ID.put(mapId, new WeakReference<>(entry));
+        FrameBufferBackedDynamicTexture texture = RenderedTexturesManager.requestTexture(
+                Moonlight.res("map_decorations/" + mapId), TEXTURE_SIZE, t -> draw(t, mapId), false);
+        if (texture != entry.texture) {
+            //new ones are drawn on init. existing ones might have been drawn by another map with this id
+            boolean existing = texture.isInitialized();
+            entry.texture = texture;
+            entry.snapshot = List.copyOf(decorations);
+            if (existing) entry.queueRedraw();
+        } else if (hasChanged(entry.snapshot, decorations)) {
+            entry.snapshot = List.copyOf(decorations);
+            entry.queueRedraw();
+        }
+        if (!texture.isInitialized()) return false;
+
+        VertexConsumer vc = buffer.getBuffer(RenderType.text(texture.getTextureLocation()));
+        float z = (data.getVanillaDecorationSize() + 1) * -0.001F - 0.02F;
+        //frame buffers are upside down
+        vc.vertex(pose, 0, 128, z).color(255, 255, 255, 255).uv(0, 0).uv2(light).endVertex();
+        vc.vertex(pose, 128, 128, z).color(255, 255, 255, 255).uv(1, 0).uv2(light).endVertex();
+        vc.vertex(pose, 128, 0, z).color(255, 255, 255, 255).uv(1, 1).uv2(light).endVertex();
+        vc.vertex(pose, 0, 0, z).color(255, 255, 255, 255).uv(0, 1).uv2(light).endVertex();
+        return true;
+    }
+
+    private static boolean hasChanged(List<CustomMapDecoration> snapshot, Collection<CustomMapDecoration> current) {
+        if (snapshot.size() != current.size()) return true;
+        int i = 0;
+        for (CustomMapDecoration d : current) {
+            CustomMapDecoration old = snapshot.get(i++);
+            //decorations are often recreated with the same data
+            if (old != d && !old.equals(d)) return true;
+        }
+        return false;
+    }
+
+    private static void draw(FrameBufferBackedDynamicTexture texture, int mapId) {
+        var ref = BY_ID.get(mapId);
+        Entry entry = ref == null ? null : ref.get();
+        if (entry == null || !(entry.data instanceof ExpandedMapData data)) return;
+        MapItemSavedData mapData = entry.data;
+        RenderedTexturesManager.drawAsInGUI(texture, s -> {
+            s.scale(16 / 128f, 16 / 128f, 1);
+            //lighting is applied when the quad is drawn
+            MapDecorationClientManager.renderAll(data, s, BUFFER, mapData, true, LightTexture.FULL_BRIGHT);
+            BUFFER.endBatch();
+        });
+    }
+}
@@ -1,5 +1,9 @@
 package net.mehvahdjukaar.moonlight.core.client;
 
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntMaps;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import net.mehvahdjukaar.moonlight.api.client.TextureCache;
 import net.mehvahdjukaar.moonlight.api.client.texture_renderer.RenderedTexturesManager;
 import net.mehvahdjukaar.moonlight.api.fluids.SoftFluid;
@@ -8,6 +12,8 @@ import net.mehvahdjukaar.moonlight.api.misc.GenericSimpleResourceReloadListener;
 import net.mehvahdjukaar.moonlight.api.platform.ClientHelper;
 import net.mehvahdjukaar.moonlight.api.util.Utils;
 import net.mehvahdjukaar.moonlight.core.Moonlight;
+import net.mehvahdjukaar.moonlight.core.fluid.SoftFluidTintCache;
+import net.minecraft.Util;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.texture.TextureAtlas;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
@@ -16,13 +22,19 @@ import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.resources.ResourceManager;
 import net.minecraft.util.FastColor;
 import net.minecraft.util.profiling.ProfilerFiller;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class SoftFluidParticleColors extends GenericSimpleResourceReloadListener {
 
-    private static final HashMap<ResourceLocation, Integer> PARTICLE_COLORS = new HashMap<>();
+    //immutable once published. Swapped as a whole when recomputed
+    private static volatile Reference2IntMap<SoftFluid> particleColors = null;
+    @Nullable
+    private static CompletableFuture<?> pendingRefresh = null;
 
     public SoftFluidParticleColors() {
         super("textures/soft_fluids", ".png"); //unused, just need for color reload
@@ -31,7 +43,7 @@ public class SoftFluidParticleColors extends GenericSimpleResourceReloadListener
     //adds all textures in this folder
     @Override
     public void apply(List<ResourceLocation> locations, ResourceManager manager, ProfilerFiller filler) {
-        PARTICLE_COLORS.clear();
+        clearColorCaches();
 
         //also using this to reset texture cache
         RenderedTexturesManager.clearCache();
@@ -40,74 +52,120 @@ public class SoftFluidParticleColors extends GenericSimpleResourceReloadListener
         TextureCache.clear();
     }
 
+    private static void clearColorCaches() {
+        particleColors = null;
+        SoftFluidTintCache.clear();
+    }
+
     public static int getParticleColor(Holder<SoftFluid> s) {
-        if(PARTICLE_COLORS.isEmpty()){
-            refreshParticleColors();
+        var colors = particleColors;
+        if (colors == null) {
+            //not precomputed yet
+            colors = computeParticleColors(snapshotSprites());
+            if (colors == null) return -1;
+            particleColors = colors;
         }
-        return PARTICLE_COLORS.getOrDefault(s.unwrapKey().get().location(), -1);
+        return colors.getInt(s.value());
+    }
+
+    /**
+     * Recomputes all particle colors. Sprite pixels are copied on the client thread and averaged on a worker thread.
+     * Called once the atlas is stitched and when soft fluids are synced
+     */
+    public static void scheduleRefresh() {
+        clearColorCaches();
+        if (pendingRefresh != null) pendingRefresh.cancel(false);
+        Minecraft mc = Minecraft.getInstance();
+        pendingRefresh = CompletableFuture.supplyAsync(SoftFluidParticleColors::snapshotSprites, mc)
+                .thenApplyAsync(SoftFluidParticleColors::computeParticleColors, Util.backgroundExecutor())
+                .thenAcceptAsync(c -> {
+                    if (c != null && particleColors == null) particleColors = c;
+                }, mc);
+    }
+
+    private record SpritePixels(SoftFluid fluid, int tint, int @Nullable [] pixels) {
     }
 
     //TODO: possibly do it for ALL fluids, not only non grayscale ones
-    private static void refreshParticleColors() {
+    //reads level and atlas so must run on the client thread
+    @Nullable
+    private static List<SpritePixels> snapshotSprites() {
         Minecraft mc = Minecraft.getInstance();
-        if (mc.level == null) return;
+        if (mc.level == null) return null;
         var fluids = SoftFluidRegistry.getRegistry(mc.level.registryAccess()).entrySet();
+        Set<SoftFluid> visited = new ReferenceOpenHashSet<>();
+        List<SpritePixels> sprites = new ArrayList<>();
 
+        TextureAtlas textureMap = mc.getModelManager().getAtlas(TextureAtlas.LOCATION_BLOCKS);
         for (var entry : fluids) {
             SoftFluid s = entry.getValue();
-            ResourceLocation key = entry.getKey().location();
-            if (!PARTICLE_COLORS.containsKey(key) && !s.isColored()) {
+            if (!s.isColored() && visited.add(s)) {
                 ResourceLocation location = s.getStillTexture();
                 if (location == null) continue;
-                TextureAtlas textureMap = Minecraft.getInstance().getModelManager().getAtlas(TextureAtlas.LOCATION_BLOCKS);
                 TextureAtlasSprite sprite = textureMap.getSprite(location);
-                int averageColor = -1;
+                int[] pixels = null;
                 try {
-                    averageColor = getColorFrom(sprite, s.getTintColor());
+                    pixels = getPixels(sprite);
                 } catch (Exception e) {
                     Moonlight.LOGGER.warn("Failed to load particle color for " + sprite + " using current resource pack. might be a broken png.mcmeta");
                 }
-                PARTICLE_COLORS.put(key, averageColor);
+                sprites.add(new SpritePixels(s, s.getTintColor(), pixels));
             }
         }
+        return sprites;
     }
 
-    //credits to Random832
-    @SuppressWarnings("ConstantConditions")
-    private static int getColorFrom(TextureAtlasSprite sprite, int tint) {
-        var c= sprite.contents();
-        if (sprite == null || c.getFrameCount() == 0) return -1;
-
-        int tintR = tint >> 16 & 255;
-        int tintG = tint >> 8 & 255;
-        int tintB = tint & 255;
-        int total = 0, totalR = 0, totalB = 0, totalG = 0;
+    //only does math so it can run anywhere
+    @Nullable
+    private static Reference2IntMap<SoftFluid> computeParticleColors(@Nullable List<SpritePixels> sprites) {
+        if (sprites == null) return null;
+        Reference2IntOpenHashMap<SoftFluid> map = new Reference2IntOpenHashMap<>();
+        map.defaultReturnValue(-1);
+        for (var s : sprites) {
+            map.put(s.fluid, s.pixels == null ? -1 : getColorFrom(s.pixels, s.tint));
+        }
+        return Reference2IntMaps.unmodifiable(map);
+    }
 
+    //copies the first readable frame
+    @SuppressWarnings("ConstantConditions")
+    private static int @Nullable [] getPixels(TextureAtlasSprite sprite) {
+        if (sprite == null) return null;
+        var c = sprite.contents();
+        if (c.getFrameCount() == 0) return null;
+        int[] pixels = new int[c.width() * c.height()];
         for (int tryFrame = 0; tryFrame < c.getFrameCount(); tryFrame++) {
             try {
+                int i = 0;
                 for (int x = 0; x < c.width(); x++) {
                     for (int y = 0; y < c.height(); y++) {
-
-                        int pixel = ClientHelper.getPixelRGBA(sprite, tryFrame, x, y);
-
-                        // this is in 0xAABBGGRR format, not the usual 0xAARRGGBB.
-                        int pixelB = pixel >> 16 & 255;
-                        int pixelG = pixel >> 8 & 255;
-                        int pixelR = pixel & 255;
-                        ++total;
-                        totalR += pixelR;
-                        totalG += pixelG;
-                        totalB += pixelB;
+                        pixels[i++] = ClientHelper.getPixelRGBA(sprite, tryFrame, x, y);
                     }
                 }
-                break;
-            } catch (Exception e) {
-                total = 0;
-                totalR = 0;
-                totalB = 0;
-                totalG = 0;
+                return pixels;
+            } catch (Exception ignored) {
             }
         }
+        return null;
+    }
+
+    //credits to Random832
+    private static int getColorFrom(int[] pixels, int tint) {
+        int tintR = tint >> 16 & 255;
+        int tintG = tint >> 8 & 255;
+        int tintB = tint & 255;
+        int total = 0, totalR = 0, totalB = 0, totalG = 0;
+
+        for (int pixel : pixels) {
+            // this is in 0xAABBGGRR format, not the usual 0xAARRGGBB.
+            int pixelB = pixel >> 16 & 255;
+            int pixelG = pixel >> 8 & 255;
+            int pixelR = pixel & 255;
+            ++total;
+            totalR += pixelR;
+            totalG += pixelG;
+            totalB += pixelB;
+        }
         if (total <= 0) return -1;
         return FastColor.ARGB32.color(255,
                 totalR / total * tintR / 255,
@@ -0,0 +1,62 @@
+package net.mehvahdjukaar.moonlight.core.fluid;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.mehvahdjukaar.moonlight.api.fluids.SoftFluid;
+import net.mehvahdjukaar.moonlight.api.fluids.SoftFluidStack;
+import net.mehvahdjukaar.moonlight.api.platform.PlatHelper;
+import net.minecraft.nbt.CompoundTag;
+import org.jetbrains.annotations.ApiStatus;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Memoized tint for fluid stacks whose color only depends on their fluid and tag.
+ * Tanks can be read from the render thread and the integrated server one so everything here is concurrent
+ */
+@ApiStatus.Internal
+public class SoftFluidTintCache {
+
+    /**
+     * Returned by stack tint functions when the color also depends on world and position, so it can't be memoized
+     */
+    public static final int WORLD_DEPENDENT_TINT = Integer.MIN_VALUE;
+
+    //fluids without tag don't need a key object
+    private static final Map<SoftFluid, Integer> UNTAGGED_TINTS = new ConcurrentHashMap<>();
+    //keyed by immutable copies that share their tag with the stack they were made from.
+    //stack equality uses the cached tag hash and tag identity before comparing tags
+    private static final Cache<SoftFluidStack, Integer> TAGGED_TINTS = CacheBuilder.newBuilder()
+            .maximumSize(512)
+            .build();
+
+    /**
+     * @param stack    fluid stack
+     * @param computer computes the color. Can return {@link #WORLD_DEPENDENT_TINT}
+     */
+    public static int getStackTint(SoftFluidStack stack, ToIntFunction<SoftFluidStack> computer) {
+        //only worth it for rendering. Dedicated servers just compute it for saving
+        if (!PlatHelper.getPhysicalSide().isClient()) return computer.applyAsInt(stack);
+        SoftFluid fluid = stack.getFluid().value();
+        CompoundTag tag = stack.getTagView();
+        if (tag == null) {
+            Integer cached = UNTAGGED_TINTS.get(fluid);
+            if (cached != null) return cached;
+            int color = computer.applyAsInt(stack);
+            UNTAGGED_TINTS.put(fluid, color);
+            return color;
+        }
+        Integer cached = TAGGED_TINTS.getIfPresent(stack);
+        if (cached != null) return cached;
+        int color = computer.applyAsInt(stack);
+        TAGGED_TINTS.put(stack.immutableCopy(), color);
+        return color;
+    }
+
+    public static void clear() {
+        UNTAGGED_TINTS.clear();
+        TAGGED_TINTS.invalidateAll();
+    }
+}
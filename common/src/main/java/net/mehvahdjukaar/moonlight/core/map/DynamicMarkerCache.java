@@ -0,0 +1,93 @@
+package net.mehvahdjukaar.moonlight.core.map;
+
+import net.mehvahdjukaar.moonlight.api.map.DynamicMarkerContext;
+import net.mehvahdjukaar.moonlight.api.map.markers.MapBlockMarker;
+import net.mehvahdjukaar.moonlight.core.Moonlight;
+import net.minecraft.Util;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.saveddata.maps.MapItemSavedData;
+import org.jetbrains.annotations.ApiStatus;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the last dynamic server markers computed for a map holding player.
+ * Each provider is only called when its refresh interval is up. Async ones run on the background executor
+ * and publish their result here once done, without locking the server thread
+ */
+@ApiStatus.Internal
+public class DynamicMarkerCache {
+
+    private final List<Entry> entries = new ArrayList<>();
+    //incremented by async providers when they publish a result
+    private final AtomicInteger published = new AtomicInteger();
+    private int lastSeenPublished = 0;
+    private List<MapBlockMarker<?>> markers = List.of();
+
+    private static class Entry {
+        private long nextUpdate = Long.MIN_VALUE;
+        private volatile boolean pending = false;
+        private volatile Set<MapBlockMarker<?>> result = Set.of();
+    }
+
+    /**
+     * Calls the providers that are due. Server thread only
+     *
+     * @return true if any provider got a new result since last call
+     */
+    public boolean update(Player player, int mapId, MapItemSavedData data) {
+        var providers = MapDataInternal.getDynamicServerProviders();
+        while (entries.size() < providers.size()) entries.add(new Entry());
+        long time = player.level().getGameTime();
+        boolean changed = false;
+        DynamicMarkerContext context = null;
+        for (int i = 0; i < providers.size(); i++) {
+            var provider = providers.get(i);
+            Entry e = entries.get(i);
+            if (time < e.nextUpdate || e.pending) continue;
+            e.nextUpdate = time + provider.refreshInterval();
+            if (provider.async() != null) {
+                if (context == null) context = DynamicMarkerContext.of(player, mapId, data);
+                DynamicMarkerContext c = context;
+                e.pending = true;
+                CompletableFuture.supplyAsync(() -> provider.async().apply(c), Util.backgroundExecutor())
+                        .whenComplete((r, ex) -> {
+                            if (ex != null) {
+                                Moonlight.LOGGER.error("Failed to compute dynamic map markers", ex);
+                            } else if (publish(e, r)) {
+                                published.incrementAndGet();
+                            }
+                            e.pending = false;
+                        });
+            } else {
+                changed |= publish(e, provider.sync().apply(player, mapId, data));
+            }
+        }
+        int p = published.get();
+        if (p != lastSeenPublished) {
+            lastSeenPublished = p;
+            changed = true;
+        }
+        if (changed) {
+            Set<MapBlockMarker<?>> all = new LinkedHashSet<>();
+            for (Entry e : entries) all.addAll(e.result);
+            markers = List.copyOf(all);
+        }
+        return changed;
+    }
+
+    private static boolean publish(Entry e, Set<MapBlockMarker<?>> result) {
+        if (result == null) result = Set.of();
+        Set<MapBlockMarker<?>> old = e.result;
+        //nothing before and nothing now is the common case. Other results might differ in data equals doesn't check
+        if (result == old || (result.isEmpty() && old.isEmpty())) return false;
+        e.result = result;
+        return true;
+    }
+
+    public List<MapBlockMarker<?>> getMarkers() {
+        return markers;
+    }
+}
@@ -5,12 +5,16 @@ import com.google.common.collect.HashBiMap;
 import com.mojang.datafixers.util.Either;
 import com.mojang.serialization.Codec;
 import dev.architectury.injectables.annotations.ExpectPlatform;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import net.mehvahdjukaar.moonlight.api.map.CustomMapData;
 import net.mehvahdjukaar.moonlight.api.map.CustomMapDecoration;
+import net.mehvahdjukaar.moonlight.api.map.DynamicMarkerContext;
 import net.mehvahdjukaar.moonlight.api.map.markers.MapBlockMarker;
 import net.mehvahdjukaar.moonlight.api.map.type.CustomDecorationType;
 import net.mehvahdjukaar.moonlight.api.map.type.JsonDecorationType;
 import net.mehvahdjukaar.moonlight.api.map.type.MapDecorationType;
+import net.mehvahdjukaar.moonlight.api.misc.ResLocInterner;
 import net.mehvahdjukaar.moonlight.api.misc.TriFunction;
 import net.mehvahdjukaar.moonlight.api.util.Utils;
 import net.mehvahdjukaar.moonlight.core.Moonlight;
@@ -20,6 +24,8 @@ import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.levelgen.structure.Structure;
 import net.minecraft.world.level.saveddata.maps.MapItemSavedData;
 import org.jetbrains.annotations.ApiStatus;
@@ -27,6 +33,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 @ApiStatus.Internal
@@ -135,7 +142,7 @@ public class MapDataInternal {
 
     @Nullable
     public static MapDecorationType<? extends CustomMapDecoration, ?> get(String id) {
-        return get(new ResourceLocation(id));
+        return get(ResLocInterner.parse(id));
     }
 
     public static MapDecorationType<?, ?> get(ResourceLocation id) {
@@ -149,12 +156,60 @@ public class MapDataInternal {
         return hackyGetRegistry().getOptional(id);
     }
 
-    public static Set<MapBlockMarker<?>> getDynamicServer(Player player, int mapId, MapItemSavedData data) {
-        Set<MapBlockMarker<?>> dynamic = new HashSet<>();
-        for (var v : DYNAMIC_SERVER) {
-            dynamic.addAll(v.apply(player, mapId, data));
+    //network ids. The registry is synced so raw ids are the same on both sides
+    @Nullable
+    private static volatile NetworkIdTable networkIds = null;
+
+    private record NetworkIdTable(Registry<MapDecorationType<?, ?>> registry, MapDecorationType<?, ?>[] byId,
+                                  Reference2IntOpenHashMap<MapDecorationType<?, ?>> toId) {
+
+        private static NetworkIdTable build(Registry<MapDecorationType<?, ?>> registry) {
+            MapDecorationType<?, ?>[] byId = new MapDecorationType[registry.size()];
+            Reference2IntOpenHashMap<MapDecorationType<?, ?>> toId = new Reference2IntOpenHashMap<>(byId.length);
+            toId.defaultReturnValue(-1);
+            for (var t : registry) {
+                int id = registry.getId(t);
+                if (id >= 0 && id < byId.length) {
+                    byId[id] = t;
+                    toId.put(t, id);
+                }
+            }
+            return new NetworkIdTable(registry, byId, toId);
         }
-        return dynamic;
+    }
+
+    private static NetworkIdTable getNetworkIds() {
+        var reg = hackyGetRegistry();
+        var table = networkIds;
+        //registry instance changes on login and data reload
+        if (table == null || table.registry != reg) {
+            table = NetworkIdTable.build(reg);
+            networkIds = table;
+        }
+        return table;
+    }
+
+    @ApiStatus.Internal
+    public static void clearNetworkIds() {
+        networkIds = null;
+    }
+
+    public static int getNetworkId(MapDecorationType<?, ?> type) {
+        return getNetworkIds().toId.getInt(type);
+    }
+
+    /**
+     * @return type with the given network id or null if it's unknown. Its data should then be skipped
+     */
+    @Nullable
+    public static MapDecorationType<?, ?> getFromNetworkId(int id) {
+        var byId = getNetworkIds().byId;
+        if (id >= 0 && id < byId.length) return byId[id];
+        return null;
+    }
+
+    static List<DynamicServerProvider> getDynamicServerProviders() {
+        return DYNAMIC_SERVER;
     }
 
     public static Set<MapBlockMarker<?>> getDynamicClient(int mapId, MapItemSavedData data) {
@@ -169,7 +224,7 @@ public class MapDataInternal {
     @Nullable
     public static MapBlockMarker<?> readWorldMarker(CompoundTag compound) {
         for (var id : compound.getAllKeys()) {
-            return get(new ResourceLocation(id)).loadMarkerFromNBT(compound.getCompound(id));
+            return get(ResLocInterner.parse(id)).loadMarkerFromNBT(compound.getCompound(id));
         }
         return null;
     }
@@ -182,17 +237,74 @@ public class MapDataInternal {
      * @return markers found, empty list if none found
      */
     public static List<MapBlockMarker<?>> getMarkersFromWorld(BlockGetter reader, BlockPos pos) {
+        MarkerDispatch dispatch = getMarkerDispatch();
+        BlockState state = reader.getBlockState(pos);
         List<MapBlockMarker<?>> list = new ArrayList<>();
-        for (MapDecorationType<?, ?> type : getValues()) {
+        MapDecorationType<?, ?>[] candidates = dispatch.byBlock.get(state.getBlock());
+        if (candidates != null) {
+            for (MapDecorationType<?, ?> type : candidates) {
+                MapBlockMarker<?> c = type.getWorldMarkerFromWorld(reader, pos);
+                if (c != null) list.add(c);
+            }
+        }
+        for (MapDecorationType<?, ?> type : dispatch.fullScan) {
             MapBlockMarker<?> c = type.getWorldMarkerFromWorld(reader, pos);
             if (c != null) list.add(c);
         }
         return list;
     }
 
+    //types that can find world markers grouped by the blocks they can match
+    @Nullable
+    private static volatile MarkerDispatch markerDispatch = null;
+
+    private record MarkerDispatch(Registry<MapDecorationType<?, ?>> registry,
+                                  Reference2ObjectOpenHashMap<Block, MapDecorationType<?, ?>[]> byBlock,
+                                  MapDecorationType<?, ?>[] fullScan) {
+
+        private static MarkerDispatch build(Registry<MapDecorationType<?, ?>> registry) {
+            Map<Block, List<MapDecorationType<?, ?>>> map = new Reference2ObjectOpenHashMap<>();
+            List<MapDecorationType<?, ?>> fullScan = new ArrayList<>();
+            for (var t : registry) {
+                Collection<Block> targets = t.getTargetBlocks();
+                if (targets == null) fullScan.add(t);
+                else {
+                    for (Block b : targets) {
+                        map.computeIfAbsent(b, k -> new ArrayList<>()).add(t);
+                    }
+                }
+            }
+            Reference2ObjectOpenHashMap<Block, MapDecorationType<?, ?>[]> byBlock = new Reference2ObjectOpenHashMap<>(map.size());
+            map.forEach((b, l) -> byBlock.put(b, l.toArray(MapDecorationType[]::new)));
+            return new MarkerDispatch(registry, byBlock, fullScan.toArray(MapDecorationType[]::new));
+        }
+    }
+
+    private static MarkerDispatch getMarkerDispatch() {
+        var reg = hackyGetRegistry();
+        var dispatch = markerDispatch;
+        if (dispatch == null || dispatch.registry != reg) {
+            dispatch = MarkerDispatch.build(reg);
+            markerDispatch = dispatch;
+        }
+        return dispatch;
+    }
+
+    //tags might have changed
+    @ApiStatus.Internal
+    public static void clearMarkerDispatch() {
+        markerDispatch = null;
+    }
+
     //dynamic markers
 
-    private static final List<TriFunction<Player, Integer, MapItemSavedData, Set<MapBlockMarker<?>>>> DYNAMIC_SERVER = new ArrayList<>();
+    //one of the two is set
+    record DynamicServerProvider(@Nullable TriFunction<Player, Integer, MapItemSavedData, Set<MapBlockMarker<?>>> sync,
+                                 @Nullable Function<DynamicMarkerContext, Set<MapBlockMarker<?>>> async,
+                                 int refreshInterval) {
+    }
+
+    private static final List<DynamicServerProvider> DYNAMIC_SERVER = new ArrayList<>();
     private static final List<BiFunction<Integer, MapItemSavedData, Set<MapBlockMarker<?>>>> DYNAMIC_CLIENT = new ArrayList<>();
 
 
@@ -200,8 +312,14 @@ public class MapDataInternal {
         DYNAMIC_CLIENT.add(event);
     }
 
-    public static void addDynamicServerMarkersEvent(TriFunction<Player, Integer, MapItemSavedData, Set<MapBlockMarker<?>>> event) {
-        DYNAMIC_SERVER.add(event);
+    public static void addDynamicServerMarkersEvent(TriFunction<Player, Integer, MapItemSavedData, Set<MapBlockMarker<?>>> event,
+                                                    int refreshInterval) {
+        DYNAMIC_SERVER.add(new DynamicServerProvider(event, null, Math.max(1, refreshInterval)));
+    }
+
+    public static void addAsyncDynamicServerMarkersEvent(Function<DynamicMarkerContext, Set<MapBlockMarker<?>>> event,
+                                                         int refreshInterval) {
+        DYNAMIC_SERVER.add(new DynamicServerProvider(null, event, Math.max(1, refreshInterval)));
     }
 
 }
@@ -0,0 +1,268 @@
+package net.mehvahdjukaar.moonlight.core.map;
+
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import net.mehvahdjukaar.moonlight.api.map.CustomMapDecoration;
+import net.mehvahdjukaar.moonlight.api.map.type.MapDecorationType;
+import net.mehvahdjukaar.moonlight.core.Moonlight;
+import net.minecraft.network.FriendlyByteBuf;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Keeps track of the custom decorations a client already has for a map so only changes need to be sent.
+ * One per map holding player. Decorations get a short id on the client.
+ * A decoration instance that was already sent is assumed unchanged, so decorations must be replaced rather than
+ * modified in place. New instances are compared by their buffer encoding
+ */
+@ApiStatus.Internal
+public class MapDecorationSyncTracker {
+
+    //client side decorations synced with this are stored with this prefix followed by their id
+    public static final String KEY_PREFIX = "icon-";
+
+    private final ToIntFunction<MapDecorationType<?, ?>> typeIds;
+    private final Map<String, Sent> sent = new Object2ObjectOpenHashMap<>();
+    //reused to encode decorations
+    private final FriendlyByteBuf buffer = new FriendlyByteBuf(Unpooled.buffer());
+    private int nextId = 0;
+    private boolean needsReset = true;
+
+    private record Sent(int id, MapDecorationType<?, ?> type, byte[] data, CustomMapDecoration decoration) {
+    }
+
+    public MapDecorationSyncTracker() {
+        this(MapDataInternal::getNetworkId);
+    }
+
+    /**
+     * @param typeIds network id of each decoration type. Only needs to be given when running without a registry
+     */
+    public MapDecorationSyncTracker(ToIntFunction<MapDecorationType<?, ?>> typeIds) {
+        this.typeIds = typeIds;
+    }
+
+    public void requestReset() {
+        this.needsReset = true;
+    }
+
+    /**
+     * @param current      all the decorations the client should have, by a server side key
+     * @param withChecksum if a checksum should be included so the client can detect a desync
+     * @return changes since last call or null if there are none to send. After a reset this is a full snapshot
+     */
+    @Nullable
+    public Delta computeDelta(Map<String, CustomMapDecoration> current, boolean withChecksum) {
+        boolean reset = this.needsReset;
+        if (reset) {
+            this.sent.clear();
+            this.nextId = 0;
+            this.needsReset = false;
+        }
+        List<Delta.Entry> changed = new ArrayList<>();
+        for (var e : current.entrySet()) {
+            CustomMapDecoration deco = e.getValue();
+            Sent old = sent.get(e.getKey());
+            if (old != null && old.decoration == deco) continue;
+            MapDecorationType<?, ?> type = deco.getType();
+            buffer.clear();
+            deco.saveToBuffer(buffer);
+            if (old != null && old.type == type && Arrays.equals(old.data, 0, old.data.length,
+                    buffer.array(), buffer.arrayOffset(), buffer.arrayOffset() + buffer.writerIndex())) {
+                //same content in a new instance
+                sent.put(e.getKey(), new Sent(old.id, type, old.data, deco));
+                continue;
+            }
+            byte[] data = new byte[buffer.readableBytes()];
+            buffer.getBytes(0, data);
+            int id = old == null ? nextId++ : old.id;
+            sent.put(e.getKey(), new Sent(id, type, data, deco));
+            changed.add(new Delta.Entry(id, typeIds.applyAsInt(type), type, data));
+        }
+        IntList removed = new IntArrayList();
+        //every current decoration is in there now so anything extra was removed
+        if (sent.size() > current.size()) {
+            var it = sent.entrySet().iterator();
+            while (it.hasNext()) {
+                var e = it.next();
+                if (!current.containsKey(e.getKey())) {
+                    removed.add(e.getValue().id);
+                    it.remove();
+                }
+            }
+        }
+        if (!reset && changed.isEmpty() && removed.isEmpty() && !withChecksum) return null;
+        Integer checksum = null;
+        //snapshots replace everything so they don't need one
+        if (withChecksum && !reset) {
+            int c = sent.size();
+            for (Sent s : sent.values()) {
+                c += hash(s.id, typeIds.applyAsInt(s.type), s.data);
+            }
+            checksum = c;
+        }
+        return new Delta(reset, removed, changed, checksum);
+    }
+
+    private static int hash(int id, int typeId, byte[] data) {
+        return (id * 31 + typeId) * 31 + Arrays.hashCode(data);
+    }
+
+    /**
+     * Client side copy of the decorations of a map as they were received, so checksums don't need to encode them again
+     */
+    public static class Received {
+
+        private final Int2ObjectOpenHashMap<Delta.Entry> entries = new Int2ObjectOpenHashMap<>();
+
+        private int checksum() {
+            int c = entries.size();
+            for (Delta.Entry e : entries.values()) {
+                c += hash(e.id, e.typeId, e.data);
+            }
+            return c;
+        }
+    }
+
+    public static class Delta {
+
+        private record Entry(int id, int typeId, @Nullable MapDecorationType<?, ?> type, byte[] data) {
+        }
+
+        private final boolean reset;
+        private final IntList removed;
+        private final List<Entry> changed;
+        @Nullable
+        private final Integer checksum;
+
+        private Delta(boolean reset, IntList removed, List<Entry> changed, @Nullable Integer checksum) {
+            this.reset = reset;
+            this.removed = removed;
+            this.changed = changed;
+            this.checksum = checksum;
+        }
+
+        /**
+         * @return true if this replaces all the client decorations. Its entries then have ids from 0 in order
+         */
+        public boolean isSnapshot() {
+            return reset;
+        }
+
+        /**
+         * Writes a snapshot in the compact full format. Ids are implicit
+         */
+        public void writeSnapshot(FriendlyByteBuf buf) {
+            if (!reset) throw new IllegalStateException("Tried to write a decoration delta as a snapshot");
+            buf.writeVarInt(changed.size());
+            for (Entry e : changed) {
+                buf.writeVarInt(e.typeId);
+                buf.writeByteArray(e.data);
+            }
+        }
+
+        public static Delta readSnapshot(FriendlyByteBuf buf) {
+            return readSnapshot(buf, MapDataInternal::getFromNetworkId);
+        }
+
+        /**
+         * @param types decoration type of each network id, null if unknown
+         */
+        public static Delta readSnapshot(FriendlyByteBuf buf, IntFunction<MapDecorationType<?, ?>> types) {
+            int count = buf.readVarInt();
+            List<Entry> changed = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int typeId = buf.readVarInt();
+                //length prefixed so unknown types can be skipped
+                byte[] data = buf.readByteArray();
+                changed.add(new Entry(i, typeId, types.apply(typeId), data));
+            }
+            return new Delta(true, new IntArrayList(), changed, null);
+        }
+
+        public void write(FriendlyByteBuf buf) {
+            buf.writeBoolean(reset);
+            buf.writeVarInt(removed.size());
+            for (int i = 0; i < removed.size(); i++) {
+                buf.writeVarInt(removed.getInt(i));
+            }
+            buf.writeVarInt(changed.size());
+            for (Entry e : changed) {
+                buf.writeVarInt(e.id);
+                buf.writeVarInt(e.typeId);
+                buf.writeByteArray(e.data);
+            }
+            buf.writeBoolean(checksum != null);
+            if (checksum != null) buf.writeInt(checksum);
+        }
+
+        public static Delta read(FriendlyByteBuf buf) {
+            return read(buf, MapDataInternal::getFromNetworkId);
+        }
+
+        /**
+         * @param types decoration type of each network id, null if unknown
+         */
+        public static Delta read(FriendlyByteBuf buf, IntFunction<MapDecorationType<?, ?>> types) {
+            boolean reset = buf.readBoolean();
+            int removedCount = buf.readVarInt();
+            IntList removed = new IntArrayList(removedCount);
+            for (int i = 0; i < removedCount; i++) {
+                removed.add(buf.readVarInt());
+            }
+            int changedCount = buf.readVarInt();
+            List<Entry> changed = new ArrayList<>(changedCount);
+            for (int i = 0; i < changedCount; i++) {
+                int id = buf.readVarInt();
+                int typeId = buf.readVarInt();
+                //length prefixed so unknown types can be skipped
+                byte[] data = buf.readByteArray();
+                changed.add(new Entry(id, typeId, types.apply(typeId), data));
+            }
+            Integer checksum = buf.readBoolean() ? buf.readInt() : null;
+            return new Delta(reset, removed, changed, checksum);
+        }
+
+        /**
+         * Applies this to the client decorations of a map
+         *
+         * @param received what the client got so far for this map. Updated with this delta
+         * @return false if the client is out of sync and needs a full resend
+         */
+        public boolean applyTo(Map<String, CustomMapDecoration> decorations, Received received) {
+            if (reset) {
+                decorations.keySet().removeIf(k -> k.startsWith(KEY_PREFIX));
+                received.entries.clear();
+            }
+            for (int i = 0; i < removed.size(); i++) {
+                int id = removed.getInt(i);
+                decorations.remove(KEY_PREFIX + id);
+                received.entries.remove(id);
+            }
+            for (Entry e : changed) {
+                //kept even if it can't be loaded so the checksum still matches
+                received.entries.put(e.id, e);
+                CustomMapDecoration d = null;
+                if (e.type != null) {
+                    d = e.type.loadDecorationFromBuffer(new FriendlyByteBuf(Unpooled.wrappedBuffer(e.data)));
+                }
+                if (d != null) decorations.put(KEY_PREFIX + e.id, d);
+                else {
+                    Moonlight.LOGGER.warn("Failed to load custom map decoration, skipping");
+                    decorations.remove(KEY_PREFIX + e.id);
+                }
+            }
+            return checksum == null || checksum == received.checksum();
+        }
+    }
+}
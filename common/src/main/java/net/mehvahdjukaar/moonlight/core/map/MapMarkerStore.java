@@ -0,0 +1,179 @@
+package net.mehvahdjukaar.moonlight.core.map;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.mehvahdjukaar.moonlight.api.map.markers.MapBlockMarker;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Markers of a map by id, also indexed by the block column they are in so map refreshes can find them directly.
+ * All mutations, including the ones done through views, iterators and entries, keep the index in sync
+ */
+@ApiStatus.Internal
+public class MapMarkerStore extends AbstractMap<String, MapBlockMarker<?>> {
+
+    private static final long NO_COLUMN = Long.MAX_VALUE;
+
+    private final Map<String, MapBlockMarker<?>> markers = new HashMap<>();
+    private final Long2ObjectOpenHashMap<List<String>> byColumn = new Long2ObjectOpenHashMap<>();
+    //column each id was indexed in. Marker positions can change after they are added
+    private final Object2LongOpenHashMap<String> columns = new Object2LongOpenHashMap<>();
+    private final EntrySet entrySet = new EntrySet();
+
+    public MapMarkerStore() {
+        this.columns.defaultReturnValue(NO_COLUMN);
+    }
+
+    /**
+     * @return ids of the markers in the given column
+     */
+    @Nullable
+    public List<String> getIdsInColumn(int x, int z) {
+        return byColumn.get(ChunkPos.asLong(x, z));
+    }
+
+    @Override
+    public int size() {
+        return markers.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return markers.containsKey(key);
+    }
+
+    @Override
+    public MapBlockMarker<?> get(Object key) {
+        return markers.get(key);
+    }
+
+    @Override
+    public MapBlockMarker<?> put(String key, MapBlockMarker<?> value) {
+        MapBlockMarker<?> old = markers.put(key, value);
+        unindex(key);
+        index(key, value);
+        return old;
+    }
+
+    @Override
+    public MapBlockMarker<?> remove(Object key) {
+        MapBlockMarker<?> old = markers.remove(key);
+        if (old != null) unindex((String) key);
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        markers.clear();
+        byColumn.clear();
+        columns.clear();
+    }
+
+    @NotNull
+    @Override
+    public Set<Entry<String, MapBlockMarker<?>>> entrySet() {
+        return entrySet;
+    }
+
+    private void index(String key, MapBlockMarker<?> marker) {
+        BlockPos pos = marker.getPos();
+        if (pos == null) return;
+        long c = ChunkPos.asLong(pos.getX(), pos.getZ());
+        byColumn.computeIfAbsent(c, k -> new ObjectArrayList<>(1)).add(key);
+        columns.put(key, c);
+    }
+
+    private void unindex(String key) {
+        long c = columns.removeLong(key);
+        if (c == NO_COLUMN) return;
+        List<String> ids = byColumn.get(c);
+        if (ids != null) {
+            ids.remove(key);
+            if (ids.isEmpty()) byColumn.remove(c);
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Entry<String, MapBlockMarker<?>>> {
+
+        @Override
+        public int size() {
+            return markers.size();
+        }
+
+        @Override
+        public void clear() {
+            MapMarkerStore.this.clear();
+        }
+
+        @Override
+        public Iterator<Entry<String, MapBlockMarker<?>>> iterator() {
+            Iterator<Entry<String, MapBlockMarker<?>>> it = markers.entrySet().iterator();
+            return new Iterator<>() {
+                @Nullable
+                private String last = null;
+
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Entry<String, MapBlockMarker<?>> next() {
+                    IndexedEntry e = new IndexedEntry(it.next());
+                    last = e.getKey();
+                    return e;
+                }
+
+                @Override
+                public void remove() {
+                    it.remove();
+                    unindex(last);
+                    last = null;
+                }
+            };
+        }
+    }
+
+    private class IndexedEntry implements Entry<String, MapBlockMarker<?>> {
+        private final Entry<String, MapBlockMarker<?>> entry;
+
+        private IndexedEntry(Entry<String, MapBlockMarker<?>> entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public String getKey() {
+            return entry.getKey();
+        }
+
+        @Override
+        public MapBlockMarker<?> getValue() {
+            return entry.getValue();
+        }
+
+        @Override
+        public MapBlockMarker<?> setValue(MapBlockMarker<?> value) {
+            MapBlockMarker<?> old = entry.setValue(value);
+            unindex(entry.getKey());
+            index(entry.getKey(), value);
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return entry.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return entry.hashCode();
+        }
+    }
+}
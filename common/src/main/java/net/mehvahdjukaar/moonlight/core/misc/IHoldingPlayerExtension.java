@@ -8,6 +8,8 @@ public interface IHoldingPlayerExtension {
 
     void moonlight$setCustomMarkersDirty();
 
+    void moonlight$resendAllDecorations();
+
     <H extends CustomMapData.DirtyCounter> void moonlight$setCustomDataDirty(
             CustomMapData.Type<?> type, Consumer<H> dirtySetter);
 }
@@ -0,0 +1,8 @@
+package net.mehvahdjukaar.moonlight.core.misc;
+
+import net.mehvahdjukaar.moonlight.core.map.MapDecorationSyncTracker;
+
+public interface IMapDataExtension {
+
+    MapDecorationSyncTracker.Received moonlight$getReceivedDecorations();
+}
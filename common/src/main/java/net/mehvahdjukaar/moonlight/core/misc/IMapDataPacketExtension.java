@@ -1,22 +1,25 @@
 package net.mehvahdjukaar.moonlight.core.misc;
 
-import net.mehvahdjukaar.moonlight.api.map.CustomMapDecoration;
+import net.mehvahdjukaar.moonlight.core.map.MapDecorationSyncTracker;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.saveddata.maps.MapItemSavedData;
 import org.joml.Vector2i;
 
-import java.util.Collection;
-
 public interface IMapDataPacketExtension {
 
-    void moonlight$sendCustomDecorations(Collection<CustomMapDecoration> decorations);
+    void moonlight$sendCustomDecorationDelta(MapDecorationSyncTracker.Delta delta);
 
     void moonlight$sendCustomMapDataTag(CompoundTag dataUpdateTag);
 
     CompoundTag moonlight$getCustomMapDataTag();
 
+    void moonlight$sendCustomMapDataBuffer(ResourceLocation id, byte[] data);
+
+    boolean moonlight$hasCustomMapDataBuffers();
+
     MapItemSavedData.MapPatch moonlight$getColorPatch();
 
     ResourceKey<Level> moonlight$getDimension();
@@ -0,0 +1,169 @@
+package net.mehvahdjukaar.moonlight.core.misc;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import net.mehvahdjukaar.moonlight.api.platform.PlatHelper;
+import net.mehvahdjukaar.moonlight.core.Moonlight;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects timings of Moonlight init phases and of the mods using it.
+ * Sections are identified by a path like "block_sets;wood_type;build" and get aggregated by it.
+ * Run with -Dmoonlight.profileStartup=true to dump a report in the logs folder on exit
+ */
+public class StartupProfiler {
+
+    private static final String DUMP_PROPERTY = "moonlight.profileStartup";
+    private static final Map<String, Timing> TIMINGS = new ConcurrentHashMap<>();
+
+    static {
+        if (Boolean.getBoolean(DUMP_PROPERTY)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> dumpReport(
+                    PlatHelper.getGamePath().resolve("logs")), "Moonlight Profiler Dump"));
+        }
+    }
+
+    /**
+     * Starts timing a section. Use with try with resources
+     *
+     * @param path section path. Each element is a level of the report
+     */
+    public static Section start(String... path) {
+        return startIf(true, path);
+    }
+
+    /**
+     * Same as {@link #start} but the section is only recorded if the condition is true.
+     * For code that also runs after startup, like resource reloads
+     */
+    public static Section startIf(boolean record, String... path) {
+        StringBuilder b = new StringBuilder();
+        for (String s : path) {
+            if (!b.isEmpty()) b.append(';');
+            //; and spaces are reserved by the folded stack format
+            b.append(s.replace(';', '_').replace(' ', '_'));
+        }
+        return new Section(b.toString(), System.nanoTime(), record);
+    }
+
+    public static void record(String key, long nanos) {
+        TIMINGS.computeIfAbsent(key, k -> new Timing()).add(nanos);
+    }
+
+    public static void clear() {
+        TIMINGS.clear();
+    }
+
+    public static JsonObject createJsonReport() {
+        JsonObject root = new JsonObject();
+        JsonArray sections = new JsonArray();
+        long total = 0;
+        Map<String, Timing> timings = new TreeMap<>(TIMINGS);
+        for (var e : timings.entrySet()) {
+            Timing t = e.getValue();
+            JsonObject o = new JsonObject();
+            o.addProperty("path", e.getKey());
+            o.addProperty("count", t.count.sum());
+            o.addProperty("total_ms", t.total.sum() / 1_000_000d);
+            o.addProperty("max_ms", t.max.get() / 1_000_000d);
+            sections.add(o);
+            //children run inside their ancestors so only root frames add up
+            if (getRecordedParent(e.getKey(), timings.keySet()) == null) total += t.total.sum();
+        }
+        root.addProperty("total_ms", total / 1_000_000d);
+        root.add("sections", sections);
+        return root;
+    }
+
+    /**
+     * @return lines in the collapsed stack format used by flamegraph tools. Values are self times in microseconds
+     */
+    public static List<String> createFoldedReport() {
+        Map<String, Long> totals = new TreeMap<>();
+        TIMINGS.forEach((k, v) -> totals.put(k, v.total.sum()));
+        Map<String, Long> self = new TreeMap<>(totals);
+        for (var e : totals.entrySet()) {
+            String parent = getRecordedParent(e.getKey(), totals.keySet());
+            if (parent != null) {
+                self.computeIfPresent(parent, (k, v) -> v - e.getValue());
+            }
+        }
+        List<String> lines = new ArrayList<>();
+        self.forEach((k, v) -> {
+            long micros = Math.max(0, v / 1000);
+            if (micros > 0) lines.add(k + " " + micros);
+        });
+        return lines;
+    }
+
+    /**
+     * @return the closest ancestor of the section that was recorded, or null if it's a root frame
+     */
+    @Nullable
+    private static String getRecordedParent(String key, Set<String> recorded) {
+        int i = key.lastIndexOf(';');
+        while (i != -1) {
+            key = key.substring(0, i);
+            if (recorded.contains(key)) return key;
+            i = key.lastIndexOf(';');
+        }
+        return null;
+    }
+
+    /**
+     * Writes both a json and a folded stack report in the given folder
+     */
+    public static void dumpReport(Path folder) {
+        try {
+            Files.createDirectories(folder);
+            Files.writeString(folder.resolve("moonlight-profile.json"),
+                    new GsonBuilder().setPrettyPrinting().create().toJson(createJsonReport()), StandardCharsets.UTF_8);
+            Files.write(folder.resolve("moonlight-profile.folded"), createFoldedReport(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            Moonlight.LOGGER.error("Failed to write profiler report to {}", folder, e);
+        }
+    }
+
+    public static class Section implements AutoCloseable {
+        private final String key;
+        private final long start;
+        private final boolean record;
+
+        private Section(String key, long start, boolean record) {
+            this.key = key;
+            this.start = start;
+            this.record = record;
+        }
+
+        public long elapsedMillis() {
+            return (System.nanoTime() - start) / 1_000_000;
+        }
+
+        @Override
+        public void close() {
+            if (record) record(key, System.nanoTime() - start);
+        }
+    }
+
+    private static class Timing {
+        private final LongAdder total = new LongAdder();
+        private final LongAdder count = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        private void add(long nanos) {
+            total.add(nanos);
+            count.increment();
+            max.accumulateAndGet(nanos, Math::max);
+        }
+    }
+}
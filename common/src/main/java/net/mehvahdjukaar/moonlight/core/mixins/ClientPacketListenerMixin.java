@@ -23,7 +23,7 @@ public abstract class ClientPacketListenerMixin {
         IMapDataPacketExtension ext = (IMapDataPacketExtension) packet;
         CompoundTag customServerData = ext.moonlight$getCustomMapDataTag();
         boolean updateTexture = ext.moonlight$getColorPatch() != null;
-        if (customServerData != null) {
+        if (customServerData != null || ext.moonlight$hasCustomMapDataBuffers()) {
             updateTexture = true;
         }
         updateTexture = updateTexture || !ClientConfigs.LAZY_MAP_DATA.get();
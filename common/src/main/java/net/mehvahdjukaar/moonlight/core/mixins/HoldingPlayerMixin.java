@@ -5,10 +5,13 @@ import net.mehvahdjukaar.moonlight.api.map.CustomMapData;
 import net.mehvahdjukaar.moonlight.api.map.CustomMapDecoration;
 import net.mehvahdjukaar.moonlight.api.map.ExpandedMapData;
 import net.mehvahdjukaar.moonlight.api.map.markers.MapBlockMarker;
-import net.mehvahdjukaar.moonlight.core.map.MapDataInternal;
+import net.mehvahdjukaar.moonlight.core.map.DynamicMarkerCache;
+import net.mehvahdjukaar.moonlight.core.map.MapDecorationSyncTracker;
 import net.mehvahdjukaar.moonlight.core.misc.IHoldingPlayerExtension;
 import net.mehvahdjukaar.moonlight.core.misc.IMapDataPacketExtension;
+import io.netty.buffer.Unpooled;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.ClientboundMapItemDataPacket;
 import net.minecraft.world.entity.player.Player;
@@ -25,6 +28,7 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 import java.util.ArrayList;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.ReentrantLock;
@@ -55,6 +59,14 @@ public abstract class HoldingPlayerMixin implements IHoldingPlayerExtension {
     @Unique
     private int moonlight$volatileDecorationRefreshTicks = 0;
 
+    @Unique
+    private final MapDecorationSyncTracker moonlight$decorationTracker = new MapDecorationSyncTracker();
+
+    @Unique
+    private final DynamicMarkerCache moonlight$dynamicMarkers = new DynamicMarkerCache();
+    @Unique
+    private Map<String, CustomMapDecoration> moonlight$dynamicDecorations = Map.of();
+
     @Final
     @Shadow
     MapItemSavedData field_132;
@@ -90,22 +102,32 @@ public abstract class HoldingPlayerMixin implements IHoldingPlayerExtension {
             this.moonlight$customMarkersDirty = false;
             updateDeco = true;
         }
-        //update every 5 sec
-        List<CustomMapDecoration> extra = new ArrayList<>();
-        //we got to update every darn time if we want other heartstone players to be updated properly. Cant use client info because client doesnt have them
-        //re any time check optimization will be done by those getDynamic functions
-        //if ((moonlight$volatileDecorationRefreshTicks++ % (20 * 4)) == 0 || updateDeco) {
-        //adds dynamic decoration and sends them to a client
-        for (MapBlockMarker<?> m : MapDataInternal.getDynamicServer(player, mapId, data)) {
-            var d = m.createDecorationFromMarker(data);
-            if (d != null) extra.add(d);
+        //dynamic providers are only called when their interval is up and decorations are only sent if they changed
+        if (moonlight$dynamicMarkers.update(player, mapId, data)) {
+            Map<String, CustomMapDecoration> extra = new LinkedHashMap<>();
+            for (MapBlockMarker<?> m : moonlight$dynamicMarkers.getMarkers()) {
+                var d = m.createDecorationFromMarker(data);
+                //dynamic ones get their own key space so they can't replace saved ones
+                if (d != null) extra.put("dynamic-" + m.getMarkerId(), d);
+            }
+            if (!extra.equals(moonlight$dynamicDecorations)) {
+                moonlight$dynamicDecorations = extra;
+                updateDeco = true;
+            }
+        }
+        // checksum every 4 sec so a client that got out of sync can ask for everything again
+        boolean periodicRefresh = (moonlight$volatileDecorationRefreshTicks++ % (20 * 4)) == 0;
+        if (periodicRefresh) updateDeco = true;
+
+        //only changes are sent. Periodic refresh just sends a checksum so client can ask for everything if it's out of sync
+        MapDecorationSyncTracker.Delta decorationDelta = null;
+        if (updateDeco) {
+            Map<String, CustomMapDecoration> decorations = new LinkedHashMap<>(ed.getCustomDecorations());
+            decorations.putAll(moonlight$dynamicDecorations);
+            decorationDelta = moonlight$decorationTracker.computeDelta(decorations, periodicRefresh);
         }
-        // only send if we have stuff to update or every 4 sec
-        // this ensures removal happens (even if late), while keeping additions / modifications instant
-        if(!extra.isEmpty() || (moonlight$volatileDecorationRefreshTicks++ % (20 * 4)) == 0) updateDeco = true;
-        //}
 
-        if (updateData || updateDeco) {
+        if (updateData || decorationDelta != null) {
             // creates a new packet or modify existing one
             if (packet == null) {
                 packet = new ClientboundMapItemDataPacket(mapId,
@@ -114,18 +136,21 @@ public abstract class HoldingPlayerMixin implements IHoldingPlayerExtension {
             IMapDataPacketExtension ep = ((IMapDataPacketExtension) packet);
 
             if (updateData) {
-                CompoundTag customDataTag = new CompoundTag();
+                CompoundTag customDataTag = null;
                 for (var e : dirtyData) {
-                    saveDataToUpdateTag(ed, customDataTag, e);
+                    CustomMapData<?> d = ed.getCustomData().get(e.getKey().id());
+                    if (d.usesBufferUpdates()) {
+                        ep.moonlight$sendCustomMapDataBuffer(e.getKey().id(), saveDataToUpdateBuffer(d, e.getValue()));
+                    } else {
+                        if (customDataTag == null) customDataTag = new CompoundTag();
+                        saveDataToUpdateTag(ed, customDataTag, e);
+                    }
                     e.getValue().clearDirty();
                 }
-                ep.moonlight$sendCustomMapDataTag(customDataTag);
+                if (customDataTag != null) ep.moonlight$sendCustomMapDataTag(customDataTag);
             }
-            if (updateDeco) {
-                List<CustomMapDecoration> decorations = new ArrayList<>(ed.getCustomDecorations().values());
-                decorations.addAll(extra);
-
-                ep.moonlight$sendCustomDecorations(decorations);
+            if (decorationDelta != null) {
+                ep.moonlight$sendCustomDecorationDelta(decorationDelta);
             }
         }
         return packet;
@@ -141,6 +166,16 @@ public abstract class HoldingPlayerMixin implements IHoldingPlayerExtension {
         d.saveToUpdateTag(customDataTag, value);
     }
 
+    @Unique
+    private static <C extends CustomMapData.DirtyCounter> byte[] saveDataToUpdateBuffer(CustomMapData<C> data,
+                                                                                     CustomMapData.DirtyCounter counter) {
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        data.saveToUpdateBuffer(buf, (C) counter);
+        byte[] bytes = new byte[buf.readableBytes()];
+        buf.readBytes(bytes);
+        return bytes;
+    }
+
     @Override
     public <H extends CustomMapData.DirtyCounter> void moonlight$setCustomDataDirty(
             CustomMapData.Type<?> type, Consumer<H> dirtySetter) {
@@ -158,6 +193,12 @@ public abstract class HoldingPlayerMixin implements IHoldingPlayerExtension {
         this.moonlight$customMarkersDirty = true;
     }
 
+    @Override
+    public void moonlight$resendAllDecorations() {
+        this.moonlight$decorationTracker.requestReset();
+        this.moonlight$customMarkersDirty = true;
+    }
+
 
     @Inject(method = "markColorsDirty", at = @At("HEAD"))
     public void lockData(int x, int z, CallbackInfo ci) {
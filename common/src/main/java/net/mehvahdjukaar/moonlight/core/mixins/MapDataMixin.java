@@ -8,7 +8,11 @@ import net.mehvahdjukaar.moonlight.api.map.markers.MapBlockMarker;
 import net.mehvahdjukaar.moonlight.api.map.type.MapDecorationType;
 import net.mehvahdjukaar.moonlight.core.Moonlight;
 import net.mehvahdjukaar.moonlight.core.map.MapDataInternal;
+import net.mehvahdjukaar.moonlight.core.map.MapDecorationSyncTracker;
+import net.mehvahdjukaar.moonlight.core.map.MapMarkerStore;
 import net.mehvahdjukaar.moonlight.core.misc.IHoldingPlayerExtension;
+import net.mehvahdjukaar.moonlight.core.misc.IMapDataExtension;
+import net.mehvahdjukaar.moonlight.core.mixins.accessor.MapItemSavedDataAccessor;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
@@ -17,9 +21,12 @@ import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LevelAccessor;
 import net.minecraft.world.level.saveddata.SavedData;
 import net.minecraft.world.level.saveddata.maps.MapBanner;
+import net.minecraft.world.level.saveddata.maps.MapDecoration;
+import net.minecraft.world.level.saveddata.maps.MapFrame;
 import net.minecraft.world.level.saveddata.maps.MapItemSavedData;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
@@ -35,7 +42,7 @@ import java.util.function.Consumer;
 
 
 @Mixin(MapItemSavedData.class)
-public abstract class MapDataMixin extends SavedData implements ExpandedMapData {
+public abstract class MapDataMixin extends SavedData implements ExpandedMapData, IMapDataExtension {
 
     @Final
     @Shadow
@@ -43,7 +50,7 @@ public abstract class MapDataMixin extends SavedData implements ExpandedMapData
 
     @Final
     @Shadow
-    Map<String, net.minecraft.world.level.saveddata.maps.MapDecoration> decorations;
+    Map<String, MapDecoration> decorations;
 
     @Shadow
     @Final
@@ -53,6 +60,12 @@ public abstract class MapDataMixin extends SavedData implements ExpandedMapData
     public int centerX;
     @Shadow
     public int centerZ;
+    @Shadow
+    public ResourceKey<Level> dimension;
+    @Shadow
+    public byte[] colors;
+    @Shadow
+    public boolean locked;
 
     @Shadow
     @Final
@@ -61,9 +74,13 @@ public abstract class MapDataMixin extends SavedData implements ExpandedMapData
     @Unique
     public Map<String, CustomMapDecoration> moonlight$customDecorations = Maps.newLinkedHashMap();
 
+    //client only. Decorations as the server sent them
+    @Unique
+    private final MapDecorationSyncTracker.Received moonlight$receivedDecorations = new MapDecorationSyncTracker.Received();
+
     //world markers (stuff that gets saved)
     @Unique
-    private final Map<String, MapBlockMarker<?>> moonlight$customMapMarkers = Maps.newHashMap();
+    private final MapMarkerStore moonlight$customMapMarkers = new MapMarkerStore();
 
     //custom data that can be stored in maps
     @Unique
@@ -84,6 +101,11 @@ public abstract class MapDataMixin extends SavedData implements ExpandedMapData
 
     }
 
+    @Override
+    public MapDecorationSyncTracker.Received moonlight$getReceivedDecorations() {
+        return moonlight$receivedDecorations;
+    }
+
     @Override
     public Map<ResourceLocation, CustomMapData<?>> getCustomData() {
         return moonlight$customData;
@@ -130,7 +152,35 @@ public abstract class MapDataMixin extends SavedData implements ExpandedMapData
 
     @Override
     public MapItemSavedData copy() {
-        MapItemSavedData newData = MapItemSavedData.load(this.save(new CompoundTag()));
+        //same result as saving and loading again without encoding everything
+        MapItemSavedDataAccessor from = (MapItemSavedDataAccessor) this;
+        MapItemSavedData newData = MapItemSavedDataAccessor.invokeNew(this.centerX, this.centerZ, this.scale,
+                from.getTrackingPosition(), from.getUnlimitedTracking(), this.locked, this.dimension);
+        System.arraycopy(this.colors, 0, newData.colors, 0, this.colors.length);
+
+        MapItemSavedDataAccessor to = (MapItemSavedDataAccessor) newData;
+        //decorations are added back the same way loading does. others are added back when ticked
+        for (MapBanner b : this.bannerMarkers.values()) {
+            to.getBannerMarkers().put(b.getId(), b);
+            to.invokeAddDecoration(b.getDecoration(), null, b.getId(),
+                    b.getPos().getX(), b.getPos().getZ(), 180.0D, b.getName());
+        }
+        for (MapFrame f : from.getFrameMarkers().values()) {
+            to.getFrameMarkers().put(f.getId(), f);
+            to.invokeAddDecoration(MapDecoration.Type.FRAME, null, "frame-" + f.getEntityId(),
+                    f.getPos().getX(), f.getPos().getZ(), f.getRotation(), null);
+        }
+
+        ExpandedMapData ed = (ExpandedMapData) newData;
+        for (var e : this.moonlight$customMapMarkers.entrySet()) {
+            String key = e.getKey();
+            ed.getCustomMarkers().put(key, e.getValue().copy());
+            CustomMapDecoration d = this.moonlight$customDecorations.get(key);
+            if (d != null) ed.getCustomDecorations().put(key, d.copy());
+        }
+        for (var e : this.moonlight$customData.entrySet()) {
+            moonlight$copyData(e.getValue(), ed.getCustomData().get(e.getKey()));
+        }
         newData.setDirty();
         return newData;
     }
@@ -193,8 +243,12 @@ public abstract class MapDataMixin extends SavedData implements ExpandedMapData
     public void locked(CallbackInfoReturnable<MapItemSavedData> cir) {
         MapItemSavedData data = cir.getReturnValue();
         if (data instanceof ExpandedMapData expandedMapData) {
-            expandedMapData.getCustomMarkers().putAll(this.getCustomMarkers());
-            expandedMapData.getCustomDecorations().putAll(this.getCustomDecorations());
+            for (var e : this.getCustomMarkers().entrySet()) {
+                expandedMapData.getCustomMarkers().put(e.getKey(), e.getValue().copy());
+            }
+            for (var e : this.getCustomDecorations().entrySet()) {
+                expandedMapData.getCustomDecorations().put(e.getKey(), e.getValue().copy());
+            }
         }
         moonlight$copyCustomData(data);
     }
@@ -211,14 +265,17 @@ public abstract class MapDataMixin extends SavedData implements ExpandedMapData
             for(var d : this.moonlight$customData.entrySet()) {
                 var v = d.getValue();
                 if(v.persistOnCopyOrLock()) {
-                    CompoundTag t = new CompoundTag();
-                    v.save(t);
-                    ed.getCustomData().get(d.getKey()).load(t);
+                    moonlight$copyData(v, ed.getCustomData().get(d.getKey()));
                 }
             }
         }
     }
 
+    @Unique
+    private static <H extends CustomMapData.DirtyCounter> void moonlight$copyData(CustomMapData<H> from, CustomMapData<?> to) {
+        if (to != null) from.copyTo((CustomMapData<H>) to);
+    }
+
 
     @Inject(method = "tickCarriedBy", at = @At("TAIL"))
     public void tickCarriedBy(Player player, ItemStack stack, CallbackInfo ci) {
@@ -285,25 +342,31 @@ public abstract class MapDataMixin extends SavedData implements ExpandedMapData
 
     @Inject(method = "checkBanners", at = @At("TAIL"))
     public void checkCustomDeco(BlockGetter world, int x, int z, CallbackInfo ci) {
-        List<String> toRemove = new ArrayList<>();
-        List<MapBlockMarker<?>> toAdd = new ArrayList<>();
-        for (var e : this.moonlight$customMapMarkers.entrySet()) {
-            var marker = e.getValue();
-            if (marker.getPos().getX() == x && marker.getPos().getZ() == z) {
-                if(marker.shouldRefresh()) {
+        List<String> ids = this.moonlight$customMapMarkers.getIdsInColumn(x, z);
+        if (ids == null) return;
+        //only allocated if something changed
+        List<String> toRemove = null;
+        List<MapBlockMarker<?>> toAdd = null;
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            var marker = this.moonlight$customMapMarkers.get(id);
+            if (marker != null && marker.getPos().getX() == x && marker.getPos().getZ() == z) {
+                if (marker.shouldRefresh()) {
                     MapBlockMarker<?> newMarker = marker.getType().getWorldMarkerFromWorld(world, marker.getPos());
-                    String id = e.getKey();
                     if (newMarker == null) {
+                        if (toRemove == null) toRemove = new ArrayList<>();
                         toRemove.add(id);
                     } else if (!Objects.equals(marker, newMarker)) {
+                        if (toRemove == null) toRemove = new ArrayList<>();
+                        if (toAdd == null) toAdd = new ArrayList<>();
                         toRemove.add(id);
                         toAdd.add(newMarker);
                     }
                 }
             }
         }
-        toRemove.forEach(this::removeCustomMarker);
-        toAdd.forEach(this::addCustomMarker);
+        if (toRemove != null) toRemove.forEach(this::removeCustomMarker);
+        if (toAdd != null) toAdd.forEach(this::addCustomMarker);
     }
 
     @Inject(method = "<init>", at = @At("TAIL"))
@@ -7,12 +7,14 @@ import io.netty.handler.codec.EncoderException;
 import net.mehvahdjukaar.moonlight.api.map.CustomMapDecoration;
 import net.mehvahdjukaar.moonlight.api.map.ExpandedMapData;
 import net.mehvahdjukaar.moonlight.api.map.markers.MapBlockMarker;
-import net.mehvahdjukaar.moonlight.api.map.type.MapDecorationType;
 import net.mehvahdjukaar.moonlight.api.platform.PlatHelper;
-import net.mehvahdjukaar.moonlight.api.util.Utils;
 import net.mehvahdjukaar.moonlight.core.Moonlight;
 import net.mehvahdjukaar.moonlight.core.map.MapDataInternal;
+import net.mehvahdjukaar.moonlight.core.map.MapDecorationSyncTracker;
+import net.mehvahdjukaar.moonlight.core.misc.IMapDataExtension;
 import net.mehvahdjukaar.moonlight.core.misc.IMapDataPacketExtension;
+import net.mehvahdjukaar.moonlight.core.network.ModMessages;
+import net.mehvahdjukaar.moonlight.core.network.ServerBoundRequestMapDecorationsMessage;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.NbtIo;
@@ -33,6 +35,7 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 //I hope this won't break with mods. We need this as all data needs to be received at the same time
@@ -47,10 +50,12 @@ public class MapItemDataPacketMixin implements IMapDataPacketExtension {
     @Final
     private int mapId;
     @Unique
-    private CustomMapDecoration[] moonlight$customDecorations = null;
+    private MapDecorationSyncTracker.Delta moonlight$decorationDelta = null;
     @Unique
     private CompoundTag moonlight$customData = null;
     @Unique
+    private Map<ResourceLocation, byte[]> moonlight$customDataBuffers = null;
+    @Unique
     private int moonlight$mapCenterX = 0;
     @Unique
     private int moonlight$mapCenterZ = 0;
@@ -79,42 +84,49 @@ public class MapItemDataPacketMixin implements IMapDataPacketExtension {
     private void readExtraData(FriendlyByteBuf buf, CallbackInfo ci) {
         //we always need to send enough data to create the correct map type because we dont know if client has it
         if (buf.readBoolean()) {
-            moonlight$dimension = buf.readResourceLocation();
+            moonlight$dimension = moonlight$readDimension(buf);
             moonlight$mapCenterX = buf.readVarInt();
             moonlight$mapCenterZ = buf.readVarInt();
         }
-        if (buf.readBoolean()) {
-            this.moonlight$customDecorations = new CustomMapDecoration[buf.readVarInt()];
-            for (int m = 0; m < moonlight$customDecorations.length; ++m) {
-                MapDecorationType<?, ?> type = MapDataInternal.get(buf.readResourceLocation());
-                if (type != null) {
-                    moonlight$customDecorations[m] = type.loadDecorationFromBuffer(buf);
-                }
-            }
+        byte decorationMode = buf.readByte();
+        if (decorationMode == DECORATIONS_DELTA) {
+            this.moonlight$decorationDelta = MapDecorationSyncTracker.Delta.read(buf);
+        } else if (decorationMode == DECORATIONS_FULL) {
+            this.moonlight$decorationDelta = MapDecorationSyncTracker.Delta.readSnapshot(buf);
         }
         if (buf.readBoolean()) {
             //TODO: I really could have merged the 2 systems
             this.moonlight$customData = buf.readNbt(); //readCompressedNbt(buf);
         }
+        int buffers = buf.readVarInt();
+        if (buffers > 0) {
+            this.moonlight$customDataBuffers = new LinkedHashMap<>();
+            for (int i = 0; i < buffers; i++) {
+                moonlight$customDataBuffers.put(buf.readResourceLocation(), buf.readByteArray());
+            }
+        }
     }
 
     @Inject(method = "write", at = @At("RETURN"))
     private void writeExtraData(FriendlyByteBuf buf, CallbackInfo ci) {
         buf.writeBoolean(moonlight$dimension != null);
         if (moonlight$dimension != null) {
-            buf.writeResourceLocation(moonlight$dimension);
+            moonlight$writeDimension(buf, moonlight$dimension);
             buf.writeVarInt(moonlight$mapCenterX);
             buf.writeVarInt(moonlight$mapCenterZ);
         }
 
-        buf.writeBoolean(moonlight$customDecorations != null);
-        if (moonlight$customDecorations != null) {
-            buf.writeVarInt(moonlight$customDecorations.length);
-
-            for (CustomMapDecoration decoration : moonlight$customDecorations) {
-                buf.writeResourceLocation(Utils.getID(decoration.getType()));
-                decoration.saveToBuffer(buf);
+        if (moonlight$decorationDelta != null) {
+            //first sync and resend requests get the full format
+            if (moonlight$decorationDelta.isSnapshot()) {
+                buf.writeByte(DECORATIONS_FULL);
+                moonlight$decorationDelta.writeSnapshot(buf);
+            } else {
+                buf.writeByte(DECORATIONS_DELTA);
+                moonlight$decorationDelta.write(buf);
             }
+        } else {
+            buf.writeByte(DECORATIONS_NONE);
         }
 
         buf.writeBoolean(moonlight$customData != null);
@@ -122,21 +134,20 @@ public class MapItemDataPacketMixin implements IMapDataPacketExtension {
             buf.writeNbt(moonlight$customData);
             // writeCompressedNbt(buf, moonlight$customData);
         }
+        if (moonlight$customDataBuffers == null) buf.writeVarInt(0);
+        else {
+            buf.writeVarInt(moonlight$customDataBuffers.size());
+            moonlight$customDataBuffers.forEach((id, data) -> {
+                buf.writeResourceLocation(id);
+                buf.writeByteArray(data);
+            });
+        }
     }
 
     @Override
-    public void moonlight$sendCustomDecorations(Collection<CustomMapDecoration> decorations) {
-
-        //packet will be passed to client no decoding. if we are on an integrated server we need to create new objects
-        if (PlatHelper.getPhysicalSide().isClient()) {
-            var buffer = new FriendlyByteBuf(Unpooled.buffer());
-            decorations = decorations.stream().map(e -> {
-                e.saveToBuffer(buffer);
-                CustomMapDecoration d = e.getType().loadDecorationFromBuffer(buffer);
-                return d;
-            }).toList();
-        }
-        moonlight$customDecorations = decorations.toArray(CustomMapDecoration[]::new);
+    public void moonlight$sendCustomDecorationDelta(MapDecorationSyncTracker.Delta delta) {
+        //holds encoded data already so no need to copy on integrated servers
+        moonlight$decorationDelta = delta;
     }
 
     @Override
@@ -144,6 +155,17 @@ public class MapItemDataPacketMixin implements IMapDataPacketExtension {
         moonlight$customData = dataTag;
     }
 
+    @Override
+    public void moonlight$sendCustomMapDataBuffer(ResourceLocation id, byte[] data) {
+        if (moonlight$customDataBuffers == null) moonlight$customDataBuffers = new LinkedHashMap<>();
+        moonlight$customDataBuffers.put(id, data);
+    }
+
+    @Override
+    public boolean moonlight$hasCustomMapDataBuffers() {
+        return moonlight$customDataBuffers != null;
+    }
+
     @Override
     public CompoundTag moonlight$getCustomMapDataTag() {
         return moonlight$customData;
@@ -162,8 +184,9 @@ public class MapItemDataPacketMixin implements IMapDataPacketExtension {
 
     @Inject(method = "applyToMap", at = @At("HEAD"))
     private void handleExtraData(MapItemSavedData mapData, CallbackInfo ci) {
-        var serverDeco = this.moonlight$customDecorations;
+        var serverDelta = this.moonlight$decorationDelta;
         var serverData = this.moonlight$customData;
+        var serverBuffers = this.moonlight$customDataBuffers;
 
         mapData.centerX = this.moonlight$mapCenterX;
         mapData.centerZ = this.moonlight$mapCenterZ;
@@ -177,17 +200,13 @@ public class MapItemDataPacketMixin implements IMapDataPacketExtension {
             //mapData = MapItemSavedData.createForClient(message.scale, message.locked, Minecraft.getInstance().level.dimension());
             //Minecraft.getInstance().level.setMapData(string, mapData);
 
-            if (serverDeco != null) {
-                decorations.clear();
-                int i;
-                for (i = 0; i < serverDeco.length; ++i) {
-                    CustomMapDecoration customDecoration = serverDeco[i];
-                    if (customDecoration != null) decorations.put("icon-" + i, customDecoration);
-                    else {
-                        Moonlight.LOGGER.warn("Failed to load custom map decoration, skipping");
-                    }
+            if (serverDelta != null) {
+                //dynamic ones are re-added below
+                decorations.keySet().removeIf(k -> !k.startsWith(MapDecorationSyncTracker.KEY_PREFIX));
+                var received = ((IMapDataExtension) mapData).moonlight$getReceivedDecorations();
+                if (!serverDelta.applyTo(decorations, received)) {
+                    ModMessages.CHANNEL.sendToServer(new ServerBoundRequestMapDecorationsMessage(mapId));
                 }
-
             }
             if (serverData != null) {
                 var customData = ed.getCustomData();
@@ -195,6 +214,13 @@ public class MapItemDataPacketMixin implements IMapDataPacketExtension {
                     v.loadUpdateTag(this.moonlight$customData);
                 }
             }
+            if (serverBuffers != null) {
+                var customData = ed.getCustomData();
+                serverBuffers.forEach((id, bytes) -> {
+                    var v = customData.get(id);
+                    if (v != null) v.loadUpdateBuffer(new FriendlyByteBuf(Unpooled.wrappedBuffer(bytes)));
+                });
+            }
 
             //adds dynamic todo use deco instead
             // aaa not optimal but needed for player like behavior
@@ -209,6 +235,37 @@ public class MapItemDataPacketMixin implements IMapDataPacketExtension {
     }
 
 
+    //vanilla dimensions get a single byte
+    @Unique
+    private static final ResourceLocation[] VANILLA_DIMENSIONS = {
+            Level.OVERWORLD.location(), Level.NETHER.location(), Level.END.location()};
+
+    @Unique
+    private static void moonlight$writeDimension(FriendlyByteBuf buf, ResourceLocation dimension) {
+        for (int i = 0; i < VANILLA_DIMENSIONS.length; i++) {
+            if (VANILLA_DIMENSIONS[i].equals(dimension)) {
+                buf.writeByte(i);
+                return;
+            }
+        }
+        buf.writeByte(-1);
+        buf.writeResourceLocation(dimension);
+    }
+
+    @Unique
+    private static ResourceLocation moonlight$readDimension(FriendlyByteBuf buf) {
+        byte b = buf.readByte();
+        if (b >= 0 && b < VANILLA_DIMENSIONS.length) return VANILLA_DIMENSIONS[b];
+        return buf.readResourceLocation();
+    }
+
+    @Unique
+    private static final byte DECORATIONS_NONE = 0;
+    @Unique
+    private static final byte DECORATIONS_DELTA = 1;
+    @Unique
+    private static final byte DECORATIONS_FULL = 2;
+
     private static CompoundTag readCompressedNbt(FriendlyByteBuf buf) {
         int i = buf.readerIndex();
         byte b = buf.readByte();
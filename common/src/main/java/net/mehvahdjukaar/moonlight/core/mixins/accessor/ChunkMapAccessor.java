@@ -0,0 +1,14 @@
+package net.mehvahdjukaar.moonlight.core.mixins.accessor;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import net.minecraft.server.level.ChunkMap;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+@Mixin(ChunkMap.class)
+public interface ChunkMapAccessor {
+
+    //values are ChunkMap.TrackedEntity. Use TrackedEntityAccessor on them
+    @Accessor("entityMap")
+    Int2ObjectMap<?> getEntityMap();
+}
@@ -0,0 +1,46 @@
+package net.mehvahdjukaar.moonlight.core.mixins.accessor;
+
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.world.level.saveddata.maps.MapBanner;
+import net.minecraft.world.level.saveddata.maps.MapDecoration;
+import net.minecraft.world.level.saveddata.maps.MapFrame;
+import net.minecraft.world.level.saveddata.maps.MapItemSavedData;
+import org.jetbrains.annotations.Nullable;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+import java.util.Map;
+
+@Mixin(MapItemSavedData.class)
+public interface MapItemSavedDataAccessor {
+
+    @Invoker("<init>")
+    static MapItemSavedData invokeNew(int centerX, int centerZ, byte scale, boolean trackingPosition,
+                                      boolean unlimitedTracking, boolean locked, ResourceKey<Level> dimension) {
+        throw new AssertionError();
+    }
+
+    @Accessor("carriedByPlayers")
+    Map<Player, MapItemSavedData.HoldingPlayer> getCarriedByPlayers();
+
+    @Accessor("trackingPosition")
+    boolean getTrackingPosition();
+
+    @Accessor("unlimitedTracking")
+    boolean getUnlimitedTracking();
+
+    @Accessor("bannerMarkers")
+    Map<String, MapBanner> getBannerMarkers();
+
+    @Accessor("frameMarkers")
+    Map<String, MapFrame> getFrameMarkers();
+
+    @Invoker("addDecoration")
+    void invokeAddDecoration(MapDecoration.Type type, @Nullable LevelAccessor level, String id,
+                             double x, double z, double rotation, @Nullable Component name);
+}
@@ -0,0 +1,14 @@
+package net.mehvahdjukaar.moonlight.core.mixins.accessor;
+
+import net.minecraft.server.network.ServerPlayerConnection;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+import java.util.Set;
+
+@Mixin(targets = "net.minecraft.server.level.ChunkMap$TrackedEntity")
+public interface TrackedEntityAccessor {
+
+    @Accessor("seenBy")
+    Set<ServerPlayerConnection> getSeenBy();
+}
@@ -4,6 +4,7 @@ import net.mehvahdjukaar.moonlight.api.fluids.SoftFluidRegistry;
 import net.mehvahdjukaar.moonlight.api.platform.network.NetworkDir;
 import net.mehvahdjukaar.moonlight.api.platform.network.ChannelHandler;
 import net.mehvahdjukaar.moonlight.api.platform.network.Message;
+import net.mehvahdjukaar.moonlight.core.client.SoftFluidParticleColors;
 import net.minecraft.network.FriendlyByteBuf;
 
 //after data load
@@ -23,6 +24,7 @@ public class ClientBoundFinalizeFluidsMessage implements Message {
     public void handle(ChannelHandler.Context context) {
         if (context.getDirection() == NetworkDir.PLAY_TO_CLIENT) {
             SoftFluidRegistry.postInitClient();
+            SoftFluidParticleColors.scheduleRefresh();
         }
     }
 
@@ -27,6 +27,8 @@ public class ClientBoundSendLoginPacket implements Message {
         try {
             //check on datapack registries on client
             SoftFluidRegistry.getEmpty();
+            //synced registries were just received
+            MapDataInternal.clearNetworkIds();
         } catch (Exception e) {
             throw new RuntimeException("Not all required entries were found in datapack registry. How did this happen?", e);
         }
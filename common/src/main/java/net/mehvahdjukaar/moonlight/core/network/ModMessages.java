@@ -10,7 +10,7 @@ public class ModMessages {
 
     public static final ResourceLocation SPAWN_PACKET_ID = Moonlight.res("0");
     public static final ChannelHandler CHANNEL = ChannelHandler.builder(Moonlight.MOD_ID)
-            .version(5)
+            .version(6)
             .register(NetworkDir.PLAY_TO_CLIENT, //id = "moonlight:0"
                     ClientBoundSpawnCustomEntityMessage.class, ClientBoundSpawnCustomEntityMessage::new)
 
@@ -25,6 +25,9 @@ public class ModMessages {
 
             .register(NetworkDir.PLAY_TO_CLIENT,
                     ClientBoundSendLoginPacket.class, ClientBoundSendLoginPacket::new)
+
+            .register(NetworkDir.PLAY_TO_SERVER,
+                    ServerBoundRequestMapDecorationsMessage.class, ServerBoundRequestMapDecorationsMessage::new)
             .build();
 
     public static void init() {
@@ -0,0 +1,42 @@
+package net.mehvahdjukaar.moonlight.core.network;
+
+import net.mehvahdjukaar.moonlight.api.platform.network.ChannelHandler;
+import net.mehvahdjukaar.moonlight.api.platform.network.Message;
+import net.mehvahdjukaar.moonlight.api.platform.network.NetworkDir;
+import net.mehvahdjukaar.moonlight.core.Moonlight;
+import net.mehvahdjukaar.moonlight.core.misc.IHoldingPlayerExtension;
+import net.mehvahdjukaar.moonlight.core.mixins.accessor.MapItemSavedDataAccessor;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+
+//sent when client decorations of a map don't match the server checksum
+public class ServerBoundRequestMapDecorationsMessage implements Message {
+
+    private final int mapId;
+
+    public ServerBoundRequestMapDecorationsMessage(int mapId) {
+        this.mapId = mapId;
+    }
+
+    public ServerBoundRequestMapDecorationsMessage(FriendlyByteBuf buf) {
+        this.mapId = buf.readVarInt();
+    }
+
+    @Override
+    public void writeToBuffer(FriendlyByteBuf buf) {
+        buf.writeVarInt(mapId);
+    }
+
+    @Override
+    public void handle(ChannelHandler.Context context) {
+        if (context.getDirection() == NetworkDir.PLAY_TO_SERVER && context.getSender() instanceof ServerPlayer player) {
+            ServerLevel level = player.server.overworld();
+            var data = Moonlight.getMapDataFromKnownKeys(level, mapId);
+            if (data != null) {
+                var holding = ((MapItemSavedDataAccessor) data).getCarriedByPlayers().get(player);
+                if (holding != null) ((IHoldingPlayerExtension) holding).moonlight$resendAllDecorations();
+            }
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package net.mehvahdjukaar.moonlight.core.set;
 
-import com.google.common.base.Stopwatch;
 import dev.architectury.injectables.annotations.ExpectPlatform;
 import net.mehvahdjukaar.moonlight.api.events.AfterLanguageLoadEvent;
 import net.mehvahdjukaar.moonlight.api.events.SimpleEvent;
@@ -10,6 +9,8 @@ import net.mehvahdjukaar.moonlight.api.set.BlockSetAPI;
 import net.mehvahdjukaar.moonlight.api.set.BlockType;
 import net.mehvahdjukaar.moonlight.api.set.BlockTypeRegistry;
 import net.mehvahdjukaar.moonlight.core.Moonlight;
+import net.mehvahdjukaar.moonlight.core.misc.StartupProfiler;
+import net.minecraft.Util;
 import net.minecraft.core.Registry;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.ResourceLocation;
@@ -18,10 +19,15 @@ import net.minecraft.world.level.ItemLike;
 import net.minecraft.world.level.block.Block;
 
 import org.jetbrains.annotations.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
 
 public class BlockSetInternal {
 
@@ -31,19 +37,40 @@ public class BlockSetInternal {
     private static final ConcurrentLinkedDeque<Runnable> REMOVER_ADDER = new ConcurrentLinkedDeque<>();
 
     public static void initializeBlockSets() {
-        Stopwatch sw = Stopwatch.createStarted();
+        var section = StartupProfiler.start("block_sets");
         if (hasFilledBlockSets()) throw new UnsupportedOperationException("block sets have already bee initialized");
         FINDER_ADDER.forEach(Runnable::run);
         FINDER_ADDER.clear();
 
-        BLOCK_SET_CONTAINERS.values().forEach(BlockTypeRegistry::buildAll);
-        BLOCK_SET_CONTAINERS.values().forEach(BlockTypeRegistry::onBlockInit);
+        for (var r : BLOCK_SET_CONTAINERS.values()) {
+            try (var s = StartupProfiler.start("block_sets", r.typeName(), "build")) {
+                r.buildAll();
+            }
+        }
+        for (var r : BLOCK_SET_CONTAINERS.values()) {
+            try (var s = StartupProfiler.start("block_sets", r.typeName(), "block_init")) {
+                r.onBlockInit();
+            }
+        }
 
         //remove not wanted ones
         REMOVER_ADDER.forEach(Runnable::run);
         REMOVER_ADDER.clear();
 
-        Moonlight.LOGGER.info("Initialized block sets in {}ms", sw.elapsed().toMillis());
+        section.close();
+        Moonlight.LOGGER.info("Initialized block sets in {}ms", section.elapsedMillis());
+    }
+
+    //called on both platforms once registries are done
+    public static void initializeBlockSetItems() {
+        //runs later than block sets on forge so it gets its own root
+        try (var section = StartupProfiler.start("block_set_items")) {
+            for (var r : BLOCK_SET_CONTAINERS.values()) {
+                try (var s = StartupProfiler.start("block_set_items", r.typeName())) {
+                    r.onItemInit();
+                }
+            }
+        }
     }
 
     @ExpectPlatform
@@ -98,6 +125,36 @@ public class BlockSetInternal {
         throw new AssertionError();
     }
 
+    public static <T extends BlockType, P, E> void addParallelDynamicRegistration(
+            BlockSetAPI.BlockTypeEntryFactory<T, P, E> factory, Class<T> blockType, Registry<E> registry) {
+        addDynamicRegistration((reg, types) -> registerInParallel(factory, reg, types), blockType, registry);
+    }
+
+    private static <T extends BlockType, P, E> void registerInParallel(
+            BlockSetAPI.BlockTypeEntryFactory<T, P, E> factory, Registrator<E> reg, Collection<T> types) {
+        List<T> ordered = List.copyOf(types);
+        Executor executor = Util.backgroundExecutor();
+        List<CompletableFuture<P>> prepared = new ArrayList<>(ordered.size());
+        for (T type : ordered) {
+            prepared.add(CompletableFuture.supplyAsync(() -> factory.prepare(type), executor));
+        }
+        //entries are created here as block and item constructors are not thread safe
+        for (int i = 0; i < ordered.size(); i++) {
+            T type = ordered.get(i);
+            P data;
+            try {
+                data = prepared.get(i).join();
+            } catch (CompletionException e) {
+                throw new IllegalStateException("Failed to prepare dynamic entry for block type " + type, e.getCause());
+            }
+            if (data == null) continue;
+            E entry = factory.create(type, data);
+            if (entry == null) continue;
+            reg.register(factory.getId(type), entry);
+            factory.onRegistered(type, entry);
+        }
+    }
+
     public static <T extends BlockType> void addDynamicBlockRegistration(
             BlockSetAPI.BlockTypeRegistryCallback<Block, T> registrationFunction, Class<T> blockType) {
         addDynamicRegistration(registrationFunction, blockType, BuiltInRegistries.BLOCK);
@@ -109,6 +166,11 @@ public class BlockSetInternal {
     }
 
 
+    //called once registration is over and whenever block or item raw ids get remapped
+    public static void rebuildIdIndexes() {
+        BLOCK_SET_CONTAINERS.values().forEach(BlockTypeRegistry::rebuildIdIndex);
+    }
+
     public static Collection<BlockTypeRegistry<?>> getRegistries() {
         return BLOCK_SET_CONTAINERS.values();
     }
@@ -1,10 +1,11 @@
 package net.mehvahdjukaar.moonlight.core.set;
 
-import com.google.common.base.Stopwatch;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import net.mehvahdjukaar.moonlight.api.misc.ResLocInterner;
 import net.mehvahdjukaar.moonlight.api.platform.PlatHelper;
 import net.mehvahdjukaar.moonlight.api.util.Utils;
 import net.mehvahdjukaar.moonlight.core.Moonlight;
+import net.mehvahdjukaar.moonlight.core.misc.StartupProfiler;
 import net.minecraft.core.HolderSet;
 import net.minecraft.core.Registry;
 import net.minecraft.core.registries.BuiltInRegistries;
@@ -29,7 +30,7 @@ public class BlocksColorInternal {
 
 
     public static void setup() {
-        Stopwatch sw = Stopwatch.createStarted();
+        var section = StartupProfiler.start("color_sets");
 
         Map<String, DyeColor> colors = new HashMap<>();
         VANILLA_COLORS.forEach(d -> colors.put(d.getName(), d));
@@ -38,7 +39,8 @@ public class BlocksColorInternal {
         addColoredFromRegistry(colors, colorPriority, BuiltInRegistries.BLOCK, BLOCK_COLOR_SETS);
         addColoredFromRegistry(colors, colorPriority, BuiltInRegistries.ITEM, ITEM_COLOR_SETS);
 
-        Moonlight.LOGGER.info("Initialized color sets in {}ms", sw.elapsed().toMillis());
+        section.close();
+        Moonlight.LOGGER.info("Initialized color sets in {}ms", section.elapsedMillis());
     }
 
     public static void registerBlockColorSet(ResourceLocation key, EnumMap<DyeColor, Block> blocks, @Nullable Block defaultBlock) {
@@ -180,14 +182,18 @@ public class BlocksColorInternal {
 
     @Nullable
     private static ColoredSet<Block> getBlockSet(String key) {
-        key = new ResourceLocation(key).toString();
-        return BLOCK_COLOR_SETS.get(key);
+        var set = BLOCK_COLOR_SETS.get(key);
+        //keys without namespace
+        if (set == null) set = BLOCK_COLOR_SETS.get(ResLocInterner.parse(key).toString());
+        return set;
     }
 
     @Nullable
     private static ColoredSet<Item> getItemSet(String key) {
-        key = new ResourceLocation(key).toString();
-        return ITEM_COLOR_SETS.get(key);
+        var set = ITEM_COLOR_SETS.get(key);
+        //keys without namespace
+        if (set == null) set = ITEM_COLOR_SETS.get(ResLocInterner.parse(key).toString());
+        return set;
     }
 
     @Nullable
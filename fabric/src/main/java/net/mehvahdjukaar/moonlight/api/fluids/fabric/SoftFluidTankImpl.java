@@ -1,10 +1,12 @@
 package net.mehvahdjukaar.moonlight.api.fluids.fabric;
 
 import net.mehvahdjukaar.moonlight.api.fluids.SoftFluid;
+import net.mehvahdjukaar.moonlight.api.fluids.SoftFluidStack;
 import net.mehvahdjukaar.moonlight.api.fluids.SoftFluidTank;
 import net.mehvahdjukaar.moonlight.api.fluids.BuiltInSoftFluids;
 import net.mehvahdjukaar.moonlight.api.util.PotionNBTHelper;
 import net.mehvahdjukaar.moonlight.core.client.SoftFluidParticleColors;
+import net.mehvahdjukaar.moonlight.core.fluid.SoftFluidTintCache;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.world.level.BlockAndTintGetter;
@@ -66,19 +68,22 @@ public class SoftFluidTankImpl extends SoftFluidTank {
 
     //grabs world/ fluid stack dependent tint color if fluid has associated forge fluid. overrides normal tint color
     private void refreshSpecialColor(@Nullable BlockAndTintGetter world, @Nullable BlockPos pos) {
+        int color = SoftFluidTintCache.getStackTint(this.fluid, SoftFluidTankImpl::computeStackTint);
+        if (color != 0) this.specialColor = color;
+    }
+
+    //only depends on the stack so it can be memoized
+    private static int computeStackTint(SoftFluidStack stack) {
         //yay hardcoding
         //at least this works for any fluid
-        CompoundTag tag = this.fluid.getTag();
-        if(tag != null && tag.contains("color")){
-            this.specialColor = tag.getInt("color");
+        CompoundTag tag = stack.getTagView();
+        if (stack.is(BuiltInSoftFluids.POTION.get())) {
+            return PotionNBTHelper.getColorFromNBT(tag);
         }
-        if (fluid .is(BuiltInSoftFluids.POTION.get())) {
-            this.specialColor = PotionNBTHelper.getColorFromNBT(tag);
-        } else {
-            Fluid f = this.fluid.getVanillaFluid();
-            if (f != Fluids.EMPTY) {
-            }
+        if (tag != null && tag.contains("color")) {
+            return tag.getInt("color");
         }
+        return 0;
     }
 
 }
@@ -2,6 +2,7 @@ package net.mehvahdjukaar.moonlight.api.platform.network.fabric;
 
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.mehvahdjukaar.moonlight.api.platform.PlatHelper;
 import net.mehvahdjukaar.moonlight.api.platform.network.ChannelHandler;
@@ -22,7 +23,9 @@ import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.function.IntSupplier;
@@ -36,6 +39,9 @@ public class ChannelHandlerImpl extends ChannelHandler {
     }
 
     private int id = 0;
+    //batch messages share a class between channels so they get their own id
+    @Nullable
+    private ResourceLocation batchId = null;
 
     public ChannelHandlerImpl(String modId) {
         super(modId);
@@ -48,7 +54,8 @@ public class ChannelHandlerImpl extends ChannelHandler {
             Function<FriendlyByteBuf, M> decoder) {
 
         ResourceLocation res = new ResourceLocation(name, String.valueOf(id++));
-        ID_MAP.put(messageClass, res);
+        if (isBatch(messageClass)) batchId = res;
+        else ID_MAP.put(messageClass, res);
 
         if (direction != NetworkDir.PLAY_TO_CLIENT) {
             ServerPlayNetworking.registerGlobalReceiver(
@@ -96,17 +103,25 @@ public class ChannelHandlerImpl extends ChannelHandler {
 
     @Override
     public void sendToClientPlayer(ServerPlayer serverPlayer, Message message) {
-        //for (ServerPlayer player : PlayerLookup.tracking(entity)) {
+        if (queueForBatch(serverPlayer, message)) return;
         FriendlyByteBuf buf = PacketByteBufs.create();
         message.writeToBuffer(buf);
-        ServerPlayNetworking.send(serverPlayer, ID_MAP.get(message.getClass()), buf);
-        // }
+        ServerPlayNetworking.send(serverPlayer, getId(message), buf);
     }
 
+    private ResourceLocation getId(Message message) {
+        return isBatch(message.getClass()) ? batchId : ID_MAP.get(message.getClass());
+    }
+
+
     @Override
     public void sendToAllClientPlayers(Message message) {
-        for (var p : PlatHelper.getCurrentServer().getPlayerList().getPlayers()) {
-            sendToClientPlayer(p, message);
+        PlayerList players = PlatHelper.getCurrentServer().getPlayerList();
+        if (canBroadcastDirectly(message)) {
+            //encoded once for everybody
+            players.broadcastAll(toVanillaPacket(message));
+        } else {
+            sendToEach(players.getPlayers(), message);
         }
     }
 
@@ -125,25 +140,44 @@ public class ChannelHandlerImpl extends ChannelHandler {
             PlayerList players = currentServer.getPlayerList();
             var dimension = level.dimension();
 
-            players.broadcast(null, pos.getX(), pos.getY(), pos.getZ(),
-                    radius, dimension, toVanillaPacket(message));
+            if (canBroadcastDirectly(message)) {
+                players.broadcast(null, pos.getX(), pos.getY(), pos.getZ(),
+                        radius, dimension, toVanillaPacket(message));
+            } else {
+                List<ServerPlayer> inRange = new ArrayList<>();
+                for (ServerPlayer p : players.getPlayers()) {
+                    if (p.level().dimension() == dimension && p.distanceToSqr(pos.getX(), pos.getY(), pos.getZ()) < radius * radius) {
+                        inRange.add(p);
+                    }
+                }
+                sendToEach(inRange, message);
+            }
         } else if (PlatHelper.isDev()) throw new AssertionError("Cant send message to clients from client side");
     }
 
     @Override
     public void sentToAllClientPlayersTrackingEntity(Entity target, Message message) {
         if (target.level() instanceof ServerLevel serverLevel) {
-            serverLevel.getChunkSource().broadcast(target, toVanillaPacket(message));
+            if (canBroadcastDirectly(message)) {
+                serverLevel.getChunkSource().broadcast(target, toVanillaPacket(message));
+            } else {
+                sendToEach(PlayerLookup.tracking(target), message);
+            }
         } else if (PlatHelper.isDev()) throw new AssertionError("Cant send message to clients from client side");
     }
 
     @Override
     public void sentToAllClientPlayersTrackingEntityAndSelf(Entity target, Message message) {
         if (target.level() instanceof ServerLevel serverLevel) {
-            var p = toVanillaPacket(message);
-            serverLevel.getChunkSource().broadcast(target, p);
-            if (target instanceof ServerPlayer player) {
-                sendToClientPlayer(player, message);
+            if (canBroadcastDirectly(message)) {
+                //same packet to the target too instead of encoding it again
+                serverLevel.getChunkSource().broadcastAndSend(target, toVanillaPacket(message));
+            } else {
+                List<ServerPlayer> targets = new ArrayList<>(PlayerLookup.tracking(target));
+                if (target instanceof ServerPlayer player) {
+                    targets.add(player);
+                }
+                sendToEach(targets, message);
             }
         } else if (PlatHelper.isDev()) throw new AssertionError("Cant send message to clients from client side");
     }
@@ -151,7 +185,7 @@ public class ChannelHandlerImpl extends ChannelHandler {
     private Packet<?> toVanillaPacket(Message message) {
         FriendlyByteBuf buf = PacketByteBufs.create();
         message.writeToBuffer(buf);
-        return ServerPlayNetworking.createS2CPacket(ID_MAP.get(message.getClass()), buf);
+        return ServerPlayNetworking.createS2CPacket(getId(message), buf);
     }
 
 }
@@ -2,7 +2,6 @@ package net.mehvahdjukaar.moonlight.core.set.fabric;
 
 import net.mehvahdjukaar.moonlight.api.set.BlockSetAPI;
 import net.mehvahdjukaar.moonlight.api.set.BlockType;
-import net.mehvahdjukaar.moonlight.api.set.BlockTypeRegistry;
 import net.mehvahdjukaar.moonlight.core.set.BlockSetInternal;
 import net.minecraft.core.Registry;
 import net.minecraft.core.registries.BuiltInRegistries;
@@ -33,7 +32,7 @@ public class BlockSetInternalImpl {
     public static void initializeBlockSets() {
         BlockSetInternal.initializeBlockSets();
         //init items immediately as this happens after all registries have fired
-        BlockSetInternal.getRegistries().forEach(BlockTypeRegistry::onItemInit);
+        BlockSetInternal.initializeBlockSetItems();
         hasFilledBlockSets = true;
     }
 
@@ -5,6 +5,7 @@ import net.mehvahdjukaar.moonlight.api.fluids.*;
 import net.mehvahdjukaar.moonlight.api.util.PotionNBTHelper;
 import net.mehvahdjukaar.moonlight.api.util.Utils;
 import net.mehvahdjukaar.moonlight.core.client.SoftFluidParticleColors;
+import net.mehvahdjukaar.moonlight.core.fluid.SoftFluidTintCache;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.Tag;
@@ -50,7 +51,7 @@ public class SoftFluidTankImpl extends SoftFluidTank {
      * @return is same
      */
     public boolean isSameFluidAs(FluidStack fluidStack, CompoundTag com) {
-        return this.fluid.isEquivalent(fluidStack.getFluid()) && Objects.equal(com, this.fluid.getTag());
+        return this.fluid.isEquivalent(fluidStack.getFluid()) && Objects.equal(com, this.fluid.getTagView());
     }
 
     /**
@@ -134,6 +135,115 @@ public class SoftFluidTankImpl extends SoftFluidTank {
         return this.drainFluidTank(fluidSource, BOTTLE_COUNT);
     }
 
+    /**
+     * Pours up to n bottles of my content into the given forge fluid handlers, in order.
+     * The equivalent forge fluid is created once and all handlers are simulated before anything is filled
+     *
+     * @param destinations forge fluid handlers
+     * @param bottles      maximum number of bottles to empty
+     * @param simulate     if true nothing is changed
+     * @return bottles that were moved, or would be if simulated
+     */
+    public int transferToFluidTanks(List<? extends IFluidHandler> destinations, int bottles, boolean simulate) {
+        if (this.isEmpty() || bottles <= 0) return 0;
+        int available = Math.min(bottles, this.getFluidCount());
+        FluidStack stack = this.toEquivalentVanillaFluid(bottlesToMB(available));
+        if (stack.isEmpty()) return 0;
+        int size = destinations.size();
+        int[] planned = new int[size];
+        int total = 0;
+        for (int i = 0; i < size && total < available; i++) {
+            stack.setAmount(bottlesToMB(available - total));
+            int fillable = MBtoBottles(destinations.get(i).fill(stack, IFluidHandler.FluidAction.SIMULATE));
+            planned[i] = fillable;
+            total += fillable;
+        }
+        if (simulate || total == 0) return total;
+
+        int moved = 0;
+        for (int i = 0; i < size; i++) {
+            if (planned[i] == 0) continue;
+            IFluidHandler dest = destinations.get(i);
+            stack.setAmount(bottlesToMB(planned[i]));
+            int filled = dest.fill(stack, IFluidHandler.FluidAction.EXECUTE);
+            int b = MBtoBottles(filled);
+            int remainder = filled - bottlesToMB(b);
+            if (remainder > 0) {
+                //partial bottles can't be taken from this tank so they are drained back
+                stack.setAmount(remainder);
+                remainder -= dest.drain(stack, IFluidHandler.FluidAction.EXECUTE).getAmount();
+                //if it won't give it back it's paid as a whole bottle so no fluid is created
+                if (remainder > 0) b++;
+            }
+            moved += b;
+        }
+        this.fluid.shrink(moved);
+        return moved;
+    }
+
+    /**
+     * Drains up to n bottles from the given forge fluid handlers, in order.
+     * Only handlers containing the same fluid as this tank (or as the first non-empty handler if this is empty) are drained
+     *
+     * @param sources  forge fluid handlers
+     * @param bottles  maximum number of bottles to fill
+     * @param simulate if true nothing is changed
+     * @return bottles that were moved, or would be if simulated
+     */
+    public int drainFluidTanks(List<? extends IFluidHandler> sources, int bottles, boolean simulate) {
+        int available = Math.min(bottles, this.getSpace());
+        if (available <= 0) return 0;
+        int size = sources.size();
+        int[] planned = new int[size];
+        //reused for all handlers once we know which fluid we are pulling
+        FluidStack request = null;
+        int total = 0;
+        for (int i = 0; i < size && total < available; i++) {
+            IFluidHandler source = sources.get(i);
+            int mb = bottlesToMB(available - total);
+            FluidStack drainable;
+            if (request == null) {
+                drainable = source.drain(mb, IFluidHandler.FluidAction.SIMULATE);
+                if (drainable.isEmpty()) continue;
+                if (this.isEmpty() ? convertForgeFluid(drainable) == null : !this.isSameFluidAs(drainable, drainable.getTag())) {
+                    continue;
+                }
+                request = new FluidStack(drainable, mb);
+            } else {
+                request.setAmount(mb);
+                drainable = source.drain(request, IFluidHandler.FluidAction.SIMULATE);
+            }
+            int b = MBtoBottles(drainable.getAmount());
+            planned[i] = b;
+            total += b;
+        }
+        if (simulate || total == 0) return total;
+
+        int moved = 0;
+        for (int i = 0; i < size; i++) {
+            if (planned[i] == 0) continue;
+            IFluidHandler source = sources.get(i);
+            request.setAmount(bottlesToMB(planned[i]));
+            int drained = source.drain(request, IFluidHandler.FluidAction.EXECUTE).getAmount();
+            int b = MBtoBottles(drained);
+            int remainder = drained - bottlesToMB(b);
+            if (remainder > 0) {
+                //partial bottles can't be stored here so they are refunded
+                request.setAmount(remainder);
+                source.fill(request, IFluidHandler.FluidAction.EXECUTE);
+            }
+            moved += b;
+        }
+        if (moved == 0) return 0;
+        if (this.isEmpty()) {
+            request.setAmount(bottlesToMB(moved));
+            this.setFluid(request);
+        } else {
+            this.fluid.grow(moved);
+        }
+        return moved;
+    }
+
     /**
      * gets the equivalent forge fluid without draining the tank. returned stack might be empty
      *
@@ -141,14 +251,18 @@ public class SoftFluidTankImpl extends SoftFluidTank {
      * @return forge fluid stacks
      */
     public FluidStack toEquivalentVanillaFluid(int mb) {
-        FluidStack stack = new FluidStack(this.fluid.getVanillaFluid(), mb);
-        this.applyNBTtoFluidStack(stack);
+        return toEquivalentVanillaFluid(this.fluid, mb);
+    }
+
+    private static FluidStack toEquivalentVanillaFluid(SoftFluidStack softStack, int mb) {
+        FluidStack stack = new FluidStack(softStack.getVanillaFluid(), mb);
+        applyNBTtoFluidStack(softStack, stack);
         return stack;
     }
 
-    private void applyNBTtoFluidStack(FluidStack fluidStack) {
-        List<String> nbtKey = this.fluid.getFluid().value().getNbtKeyFromItem();
-        CompoundTag tag = this.fluid.getTag();
+    private static void applyNBTtoFluidStack(SoftFluidStack softStack, FluidStack fluidStack) {
+        List<String> nbtKey = softStack.getFluid().value().getNbtKeyFromItem();
+        CompoundTag tag = softStack.getTagView();
         if (tag != null && !tag.isEmpty() && !fluidStack.isEmpty() && nbtKey != null) {
             CompoundTag newCom = new CompoundTag();
             for (String k : nbtKey) {
@@ -224,31 +338,43 @@ public class SoftFluidTankImpl extends SoftFluidTank {
 
     //grabs world/ fluid stack dependent tint color if fluid has associated forge fluid. overrides normal tint color
     private void refreshSpecialColor(@Nullable BlockAndTintGetter world, @Nullable BlockPos pos) {
+        int color = SoftFluidTintCache.getStackTint(this.fluid, SoftFluidTankImpl::computeStackTint);
+        if (color == SoftFluidTintCache.WORLD_DEPENDENT_TINT) {
+            CompoundTag fluidTag = this.fluid.getTagView();
+            if (fluidTag != null && fluidTag.contains("color")) {
+                this.specialColor = fluidTag.getInt("color");
+            }
+            //world accessor
+            Fluid f = this.fluid.getVanillaFluid();
+            int w = IClientFluidTypeExtensions.of(f).getTintColor(f.defaultFluidState(), world, pos);
+            if (w != -1) this.specialColor = w;
+        } else if (color != 0) {
+            this.specialColor = color;
+        }
+    }
+
+    //only depends on the stack so it can be memoized. Returns WORLD_DEPENDENT_TINT when the world accessor is needed
+    private static int computeStackTint(SoftFluidStack stack) {
         //yay hardcoding
         //at least this works for any fluid
-        CompoundTag fluidTag = this.fluid.getTag();
-        if (fluidTag != null && fluidTag.contains("color")) {
-            this.specialColor = fluidTag.getInt("color");
+        CompoundTag fluidTag = stack.getTagView();
+        if (stack.is(BuiltInSoftFluids.POTION.get())) {
+            return PotionNBTHelper.getColorFromNBT(fluidTag);
         }
-        if (fluid.is(BuiltInSoftFluids.POTION.get())) {
-            this.specialColor = PotionNBTHelper.getColorFromNBT(fluidTag);
-        } else {
-            Fluid f = this.fluid.getVanillaFluid();
-            if (f != Fluids.EMPTY) {
-                var prop = IClientFluidTypeExtensions.of(f);
-                if (prop != IClientFluidTypeExtensions.DEFAULT) {
-                    //world accessor
-                    int w;
-                    //stack accessor
-                    w = prop.getTintColor(this.toEquivalentVanillaFluid(1));
-                    if (w != -1) this.specialColor = w;
-                    else {
-                        w = prop.getTintColor(f.defaultFluidState(), world, pos);
-                        if (w != -1) this.specialColor = w;
-                    }
-                }
+        Fluid f = stack.getVanillaFluid();
+        if (f != Fluids.EMPTY) {
+            var prop = IClientFluidTypeExtensions.of(f);
+            if (prop != IClientFluidTypeExtensions.DEFAULT) {
+                //stack accessor
+                int w = prop.getTintColor(toEquivalentVanillaFluid(stack, 1));
+                if (w != -1) return w;
+                return SoftFluidTintCache.WORLD_DEPENDENT_TINT;
             }
         }
+        if (fluidTag != null && fluidTag.contains("color")) {
+            return fluidTag.getInt("color");
+        }
+        return 0;
     }
 
 
@@ -4,12 +4,16 @@ import net.mehvahdjukaar.moonlight.api.platform.PlatHelper;
 import net.mehvahdjukaar.moonlight.api.platform.network.ChannelHandler;
 import net.mehvahdjukaar.moonlight.api.platform.network.Message;
 import net.mehvahdjukaar.moonlight.api.platform.network.NetworkDir;
+import net.mehvahdjukaar.moonlight.core.mixins.accessor.ChunkMapAccessor;
+import net.mehvahdjukaar.moonlight.core.mixins.accessor.TrackedEntityAccessor;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.network.ServerPlayerConnection;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
@@ -20,6 +24,8 @@ import net.minecraftforge.network.PacketDistributor;
 import net.minecraftforge.network.simple.SimpleChannel;
 import net.minecraftforge.server.ServerLifecycleHooks;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.IntSupplier;
@@ -92,12 +98,21 @@ public class ChannelHandlerImpl extends ChannelHandler {
 
 
     public void sendToClientPlayer(ServerPlayer serverPlayer, Message message) {
+        if (queueForBatch(serverPlayer, message)) return;
         channel.send(PacketDistributor.PLAYER.with(() -> serverPlayer), message);
     }
 
     @Override
     public void sendToAllClientPlayers(Message message) {
-        channel.send(PacketDistributor.ALL.noArg(), message);
+        if (canBroadcastDirectly(message)) {
+            //simple channel encodes once for all targets
+            channel.send(PacketDistributor.ALL.noArg(), message);
+        } else {
+            MinecraftServer currentServer = ServerLifecycleHooks.getCurrentServer();
+            if (currentServer != null) {
+                sendToEach(currentServer.getPlayerList().getPlayers(), message);
+            }
+        }
     }
 
     @Override
@@ -109,26 +124,61 @@ public class ChannelHandlerImpl extends ChannelHandler {
     public void sendToAllClientPlayersInRange(Level level, BlockPos pos, double radius, Message message) {
         MinecraftServer currentServer = ServerLifecycleHooks.getCurrentServer();
         if (currentServer != null && !level.isClientSide) {
-            var distributor = PacketDistributor.NEAR.with(() ->
-                    new PacketDistributor.TargetPoint(pos.getX(), pos.getY(), pos.getZ(), radius, level.dimension()));
-            channel.send(distributor, message);
+            if (canBroadcastDirectly(message)) {
+                var distributor = PacketDistributor.NEAR.with(() ->
+                        new PacketDistributor.TargetPoint(pos.getX(), pos.getY(), pos.getZ(), radius, level.dimension()));
+                channel.send(distributor, message);
+            } else {
+                List<ServerPlayer> inRange = new ArrayList<>();
+                for (ServerPlayer p : currentServer.getPlayerList().getPlayers()) {
+                    if (p.level().dimension() == level.dimension() && p.distanceToSqr(pos.getX(), pos.getY(), pos.getZ()) < radius * radius) {
+                        inRange.add(p);
+                    }
+                }
+                sendToEach(inRange, message);
+            }
         }else if(PlatHelper.isDev())throw new AssertionError("Cant send message to clients from client side");
     }
 
     @Override
     public void sentToAllClientPlayersTrackingEntity(Entity target, Message message) {
         if(!target.level().isClientSide) {
-            channel.send(PacketDistributor.TRACKING_ENTITY.with(() -> target), message);
+            if (canBroadcastDirectly(message)) {
+                channel.send(PacketDistributor.TRACKING_ENTITY.with(() -> target), message);
+            } else {
+                sendToEach(getTrackingPlayers(target), message);
+            }
         }else if(PlatHelper.isDev())throw new AssertionError("Cant send message to clients from client side");
     }
 
     @Override
     public void sentToAllClientPlayersTrackingEntityAndSelf(Entity target, Message message) {
         if(!target.level().isClientSide) {
-            channel.send(PacketDistributor.TRACKING_ENTITY_AND_SELF.with(() -> target), message);
+            if (canBroadcastDirectly(message)) {
+                channel.send(PacketDistributor.TRACKING_ENTITY_AND_SELF.with(() -> target), message);
+            } else {
+                List<ServerPlayer> players = getTrackingPlayers(target);
+                if (target instanceof ServerPlayer player) {
+                    players.add(player);
+                }
+                sendToEach(players, message);
+            }
         }else if(PlatHelper.isDev())throw new AssertionError("Cant send message to clients from client side");
     }
 
+    //same players the tracking distributors send to. Never contains the entity itself
+    private static List<ServerPlayer> getTrackingPlayers(Entity target) {
+        List<ServerPlayer> players = new ArrayList<>();
+        if (target.level() instanceof ServerLevel serverLevel) {
+            Object tracked = ((ChunkMapAccessor) serverLevel.getChunkSource().chunkMap).getEntityMap().get(target.getId());
+            if (tracked != null) {
+                for (ServerPlayerConnection c : ((TrackedEntityAccessor) tracked).getSeenBy()) {
+                    players.add(c.getPlayer());
+                }
+            }
+        }
+        return players;
+    }
 
 }
 
@@ -3,7 +3,6 @@ package net.mehvahdjukaar.moonlight.core.set.forge;
 import net.mehvahdjukaar.moonlight.api.platform.RegHelper;
 import net.mehvahdjukaar.moonlight.api.set.BlockSetAPI;
 import net.mehvahdjukaar.moonlight.api.set.BlockType;
-import net.mehvahdjukaar.moonlight.api.set.BlockTypeRegistry;
 import net.mehvahdjukaar.moonlight.core.set.BlockSetInternal;
 import net.minecraft.core.Registry;
 import net.minecraft.core.registries.BuiltInRegistries;
@@ -39,7 +38,7 @@ public class BlockSetInternalImpl {
         //if loaded registers post item init
         Consumer<RegisterEvent> eventConsumer = e->{
             if(e.getRegistryKey().equals(ForgeRegistries.ENCHANTMENTS.getRegistryKey())){
-                BlockSetInternal.getRegistries().forEach(BlockTypeRegistry::onItemInit);
+                BlockSetInternal.initializeBlockSetItems();
             }
         };
         FMLJavaModLoadingContext.get().getModEventBus().addListener(eventConsumer);